@@ -0,0 +1,47 @@
+package org.cdisc.tools;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Attribute names of every class of the bundled release, and API properties
+ * made up from them: some under the same name, some as ids and some missing,
+ * so matching them hits every synonym and the "not found" case.
+ */
+@State(Scope.Benchmark)
+public class AttributeNames {
+
+    // Model attribute names per class
+    Map<String, List<String>> attributes;
+    // API properties per class
+    Map<String, Map<String, Object>> apiClasses;
+
+    @Setup
+    public void setup(ReleaseFiles files) {
+        attributes = new TreeMap<>();
+        apiClasses = new TreeMap<>();
+        for (ModelClass modelClass : files.model.values()) {
+            List<String> names = new ArrayList<>(modelClass.getProperties().keySet());
+            Map<String, Object> api = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                if (i % 3 == 0) {
+                    api.put(name, Map.of("type", "string"));
+                } else if (i % 3 == 1) {
+                    api.put(name.endsWith("ies") ? name.substring(0, name.length() - 3) + "yIds" : name + "Ids",
+                            Map.of("type", "array"));
+                }
+            }
+            api.put("instanceType", Map.of("const", modelClass.getName()));
+            attributes.put(modelClass.getName(), names);
+            apiClasses.put(modelClass.getName(), api);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.cdisc.tools;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import net.steppschuh.markdowngenerator.table.Table;
+import org.cdisc.tools.GeneratorApp.ColumnName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.DumperOptions;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Generating the outputs from parsed inputs: the Data Dictionary table, the
+ * YAML structure, the release delta and the alignment. Text goes to a null
+ * Writer, so only the generation is measured, except for the alignment, which
+ * Utils writes to a file. Matching model attributes to API properties, as the
+ * YAML structure does, is measured on its own too.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmarks.xml")
+public class GeneratorBenchmarks {
+
+    @Benchmark
+    public void markdownTable(ScaledModel inputs) throws IOException {
+        new MarkdownTableWriter(Table.ALIGN_LEFT, Table.ALIGN_CENTER, Table.ALIGN_LEFT, Table.ALIGN_LEFT,
+                Table.ALIGN_LEFT).write(rows -> GeneratorApp.tableRows(inputs.model, inputs.cardinalities, rows),
+                        Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void yamlStructure(ScaledModel inputs) throws IOException {
+        DumperOptions dumperOptions = new DumperOptions();
+        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        List<ModelClass> sorted = inputs.model.values().stream().sorted(Comparator.comparing(ModelClass::getName))
+                .toList();
+        try (YamlEventWriter yaml = new YamlEventWriter(Writer.nullWriter(), dumperOptions)) {
+            yaml.startMapping();
+            for (ModelClass modelClass : sorted) {
+                yaml.write(modelClass.getName());
+                yaml.write(GeneratorApp.buildStructure(modelClass, inputs.registry));
+            }
+            yaml.endMapping();
+        }
+    }
+
+    @Benchmark
+    public ModelDelta releaseDelta(ScaledModel inputs) throws IOException {
+        ModelDelta delta = ModelDiff.diff(inputs.previous, inputs.model);
+        ModelDeltaWriter.writeCsv(delta, Writer.nullWriter());
+        return delta;
+    }
+
+    @Benchmark
+    public void alignment(ScaledModel inputs) throws IOException {
+        List<Map<String, Object>> records = AlignmentJoin.align(inputs.apiEntities, inputs.model,
+                inputs.cptEntities);
+        Path csv = Files.createTempFile("alignment", ".csv");
+        try {
+            Utils.printListOfMaps(ColumnName.labels(), records, csv.toString());
+        } finally {
+            Files.delete(csv);
+        }
+    }
+
+    private static List<String> matchAll(AttributeNames names,
+            BiFunction<String, Map<String, Object>, String> matcher) {
+        List<String> matches = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : names.attributes.entrySet()) {
+            Map<String, Object> api = new HashMap<>(names.apiClasses.get(entry.getKey()));
+            for (String name : entry.getValue()) {
+                matches.add(matcher.apply(name, api));
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<String> synonymLookups(AttributeNames names) {
+        return matchAll(names, AttributeSynonyms::matchAndRemove);
+    }
+
+    // How genStructure used to find an attribute: try each synonym with
+    // JsonPath and catch PathNotFoundException
+    @Benchmark
+    public List<String> jsonPathSynonyms(AttributeNames names) {
+        return matchAll(names, (name, apiProperties) -> {
+            for (String synonym : AttributeSynonyms.toIds(name)) {
+                try {
+                    JsonPath.read(apiProperties, synonym);
+                    apiProperties.remove(synonym);
+                    return synonym;
+                } catch (PathNotFoundException e) {
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package org.cdisc.tools;
+
+import org.apache.poi.xssf.extractor.XSSFExcelExtractor;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reading the release files: both XMI loaders, the CT spreadsheet and the API
+ * document
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmarks.xml")
+public class ParserBenchmarks {
+
+    @Benchmark
+    public Map<String, ModelClass> xpathLoader(ReleaseFiles files) throws Exception {
+        Map<String, ModelClass> elements = new HashMap<>();
+        new UsdmParser(files.xmi).loadFromUsdmXmi(elements);
+        return elements;
+    }
+
+    @Benchmark
+    public Map<String, ModelClass> staxLoader(ReleaseFiles files) throws Exception {
+        Map<String, ModelClass> elements = new HashMap<>();
+        new UsdmStaxParser(files.xmi).loadFromUsdmXmi(elements);
+        return elements;
+    }
+
+    @Benchmark
+    public UsdmParser parseMappedXmi(ReleaseFiles files) throws Exception {
+        return new UsdmParser(files.xmi);
+    }
+
+    // What the InputStream constructor used to do before parsing: copy the whole
+    // file into a ByteArrayOutputStream and take it out as a byte array
+    @Benchmark
+    public UsdmParser parseCopiedXmi(ReleaseFiles files) throws Exception {
+        try (InputStream file = Files.newInputStream(files.xmi)) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            file.transferTo(baos);
+            return new UsdmParser(new ByteArrayInputStream(baos.toByteArray()));
+        }
+    }
+
+    @Benchmark
+    public CptParser readCpt(ReleaseFiles files) throws Exception {
+        return new CptParser(files.cpt);
+    }
+
+    @Benchmark
+    public int streamCptSheets(ReleaseFiles files) throws Exception {
+        int[] rows = new int[1];
+        new CptSpreadsheetReader(files.cpt).read(record -> rows[0]++);
+        return rows[0];
+    }
+
+    // What CptParser used to do instead of streaming the sheets: load the whole
+    // workbook, dump it as text and split the lines on tabs
+    @Benchmark
+    public List<String[]> extractCptText(ReleaseFiles files) throws Exception {
+        try (InputStream stream = files.cpt.openStream(); XSSFWorkbook workbook = new XSSFWorkbook(stream)) {
+            String text = new XSSFExcelExtractor(workbook).getText();
+            return new BufferedReader(new StringReader(text)).lines().map(line -> line.split("\t"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Merging sets the same details on every run, so the model is reused
+    @Benchmark
+    public Map<String, ModelClass> populateMapwithCpt(ReleaseFiles files) {
+        files.cptParser.populateMapwithCpt(files.model);
+        return files.model;
+    }
+
+    @Benchmark
+    public Map<String, ModelClass> cptEntities(ReleaseFiles files) {
+        return files.cptParser.getEntitiesMap();
+    }
+
+    @Benchmark
+    public Map<String, ModelClass> apiEntities(ReleaseFiles files) throws Exception {
+        return new APIParser(files.requireApi()).getEntitiesMap();
+    }
+}
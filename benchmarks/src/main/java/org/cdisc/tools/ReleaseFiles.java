@@ -0,0 +1,81 @@
+package org.cdisc.tools;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The bundled release files the parser benchmarks read: the current release
+ * XMI (copied out of the jar so it can be memory mapped), the CT spreadsheet
+ * and the API document, plus what is parsed from them once for the benchmarks
+ * that start from a parsed input.
+ * USDM_API.json is not bundled: it is taken from -Dusdm.api=<file>, or else
+ * from the class path, and the API benchmarks fail without it.
+ */
+@State(Scope.Benchmark)
+public class ReleaseFiles {
+
+    static final String XMI_RESOURCE = "currentRelease/USDM_UML.xmi";
+    static final String CPT_RESOURCE = "USDM_CT.xlsx";
+    static final String API_RESOURCE = "USDM_API.json";
+
+    Path xmi;
+    URL cpt;
+    URL api;
+    CptParser cptParser;
+    SchemaRegistry registry;
+    // Current release model, without the CT details
+    Map<String, ModelClass> model;
+
+    @Setup
+    public void setup() throws Exception {
+        xmi = Files.createTempFile("USDM_UML", ".xmi");
+        try (InputStream stream = resource(XMI_RESOURCE).openStream()) {
+            Files.copy(stream, xmi, StandardCopyOption.REPLACE_EXISTING);
+        }
+        cpt = resource(CPT_RESOURCE);
+        String apiFile = System.getProperty("usdm.api");
+        api = apiFile != null ? Path.of(apiFile).toUri().toURL()
+                : ReleaseFiles.class.getClassLoader().getResource(API_RESOURCE);
+        cptParser = new CptParser(cpt);
+        if (api == null) {
+            registry = new SchemaRegistry(Map.of());
+        } else {
+            try (InputStream stream = api.openStream()) {
+                registry = SchemaRegistry.read(stream);
+            }
+        }
+        model = new TreeMap<>();
+        new UsdmStaxParser(xmi).loadFromUsdmXmi(model);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(xmi);
+    }
+
+    URL requireApi() {
+        if (api == null) {
+            throw new IllegalStateException(String.format("%1$s not found, set -Dusdm.api=<file>", API_RESOURCE));
+        }
+        return api;
+    }
+
+    private static URL resource(String name) throws IOException {
+        URL url = ReleaseFiles.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IOException(String.format("%1$s not found on the class path", name));
+        }
+        return url;
+    }
+}
@@ -0,0 +1,57 @@
+package org.cdisc.tools;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parsed inputs of the generator benchmarks, scale times the bundled release:
+ * every class of the model, CT entities and API entities appears scale times,
+ * under its own name and then suffixed with 1, 2, ... The copies share their
+ * ModelClass instances, which the generators only read.
+ */
+@State(Scope.Benchmark)
+public class ScaledModel {
+
+    @Param({ "1", "10" })
+    public int scale;
+
+    // Current release with the CT details, as written by --gen-table and
+    // --gen-structure
+    Map<String, ModelClass> model;
+    // Current release without the CT details, compared to model as the previous
+    // release
+    Map<String, ModelClass> previous;
+    Map<String, ModelClass> apiEntities;
+    Map<String, ModelClass> cptEntities;
+    Map<String, IDCardinality> cardinalities;
+    SchemaRegistry registry;
+
+    @Setup
+    public void setup(ReleaseFiles files) throws Exception {
+        Map<String, ModelClass> merged = new TreeMap<>();
+        new UsdmStaxParser(files.xmi).loadFromUsdmXmi(merged);
+        files.cptParser.populateMapwithCpt(merged);
+        model = scaled(merged);
+        previous = scaled(files.model);
+        apiEntities = scaled(APIParser.getEntitiesMap(files.registry));
+        cptEntities = scaled(files.cptParser.getEntitiesMap());
+        cardinalities = GeneratorApp.loadCardinalities();
+        registry = files.registry;
+    }
+
+    private Map<String, ModelClass> scaled(Map<String, ModelClass> release) {
+        Map<String, ModelClass> scaled = new HashMap<>(release);
+        for (int i = 1; i < scale; i++) {
+            for (Map.Entry<String, ModelClass> entry : release.entrySet()) {
+                scaled.put(entry.getKey() + i, entry.getValue());
+            }
+        }
+        return scaled;
+    }
+}
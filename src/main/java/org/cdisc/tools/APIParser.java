@@ -1,6 +1,7 @@
 package org.cdisc.tools;
 
 import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -8,44 +9,56 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.PathNotFoundException;
-
 import lombok.Getter;
 
 public class APIParser {
     private String inputFileName;
+    private URL inputUrl;
 
     public APIParser(String inputFileName) {
         this.inputFileName = inputFileName;
     }
 
-    public Map<String, ModelClass> getEntitiesMap() throws IOException, PathNotFoundException {
+    /**
+     * Reads the API document from anywhere, i.e. out of a git repository
+     */
+    public APIParser(URL inputUrl) {
+        this.inputFileName = inputUrl.toString();
+        this.inputUrl = inputUrl;
+    }
+
+    public Map<String, ModelClass> getEntitiesMap() throws IOException {
         try (
-                var currAPIFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(this.inputFileName);) {
-
-            Object jsonDocument = Configuration.defaultConfiguration().jsonProvider()
-                    .parse(new String(currAPIFile.readAllBytes()));
-
-            // final String root = "$.components.schemas.Study-Output";
-            final String root = "#/components/schemas/Study-Output";
-            Map<String, ModelClass> elements = new TreeMap<>();
-            List<TypeDefinition> rootTypes = new ArrayList<>();
-            getTypes(rootTypes, jsonDocument, Map.of("$ref", root));
-            buildEntitiesMap(jsonDocument, elements, rootTypes.get(0));
-            return elements;
+                var currAPIFile = this.inputUrl != null ? this.inputUrl.openStream()
+                        : GeneratorApp.class.getClassLoader().getResourceAsStream(this.inputFileName);) {
+
+            return getEntitiesMap(SchemaRegistry.read(currAPIFile));
         }
     }
 
+    /**
+     * Same as getEntitiesMap(), from schemas that have already been read. The
+     * registry is not modified.
+     *
+     * @throws IllegalStateException when a "$ref" names no schema
+     */
+    public static Map<String, ModelClass> getEntitiesMap(SchemaRegistry registry) {
+        // final String root = "$.components.schemas.Study-Output";
+        final String root = "#/components/schemas/Study-Output";
+        Map<String, ModelClass> elements = new TreeMap<>();
+        List<TypeDefinition> rootTypes = new ArrayList<>();
+        getTypes(rootTypes, registry, ApiSchemaProperty.ofRef(root));
+        buildEntitiesMap(registry, elements, rootTypes.get(0));
+        return elements;
+    }
+
     private static class TypeDefinition {
         @Getter
         private String type;
         @Getter
-        private Map<String, ?> definition;
+        private ApiSchema definition;
 
-        private TypeDefinition(String type, Map<String, ?> definition) {
+        private TypeDefinition(String type, ApiSchema definition) {
             this.type = type;
             this.definition = definition;
         }
@@ -55,52 +68,53 @@ public class APIParser {
         }
     }
 
-    private TypeDefinition classNameFromRef(Object jsonDocument, Map<String, ?> property) {
-        if (!property.containsKey("$ref")) {
+    private static TypeDefinition classNameFromRef(SchemaRegistry registry, ApiSchemaProperty property) {
+        if (property.getRef() == null) {
             return null;
         }
-        String ref = (String) property.get("$ref");
-        ref = ref.replaceFirst("\\#", "\\$");
-        ref = ref.replaceAll("\\/", "\\.");
-        Map<String, ?> definition = ((Map<String, ?>) JsonPath.read(jsonDocument, ref));
-        return new TypeDefinition((String) definition.get("title"), definition);
+        String ref = property.getRef();
+        ApiSchema definition = registry.resolve(ref);
+        if (definition == null) {
+            throw new IllegalStateException(String.format("No schema found for $ref %1$s", ref));
+        }
+        return new TypeDefinition(definition.getTitle(), definition);
     }
 
-    private void getTypes(List<TypeDefinition> types, Object jsonDocument, Map<String, ?> property) {
-        if (property.containsKey("type")) {
-            String propertyJSONType = (String) property.get("type");
+    private static void getTypes(List<TypeDefinition> types, SchemaRegistry registry, ApiSchemaProperty property) {
+        if (property.getType() != null) {
+            String propertyJSONType = property.getType();
             if (propertyJSONType.equals("array")) {
-                getTypes(types, jsonDocument, (Map<String, ?>) property.get("items"));
+                getTypes(types, registry, property.getItems());
             } else {
                 types.add(new TypeDefinition(propertyJSONType));
             }
-        } else if (property.containsKey("const")) {
-            Object propertyJSONValue = property.get("const");
+        } else if (property.isConstant()) {
+            Object propertyJSONValue = property.getConstValue();
             if (propertyJSONValue instanceof String) {
                 types.add(new TypeDefinition("string"));
             }
-        } else if (property.containsKey("anyOf")) {
-            for (Map<String, String> typeObject : ((List<Map<String, String>>) property.get("anyOf"))) {
-                getTypes(types, jsonDocument, typeObject);
+        } else if (property.getAnyOf() != null) {
+            for (ApiSchemaProperty typeObject : property.getAnyOf()) {
+                getTypes(types, registry, typeObject);
             }
-        } else if (property.containsKey("$ref")) {
-            types.add(classNameFromRef(jsonDocument, property));
+        } else if (property.getRef() != null) {
+            types.add(classNameFromRef(registry, property));
         }
     }
 
-    private void buildEntitiesMap(Object jsonDocument, Map<String, ModelClass> elements, TypeDefinition classPath) {
+    private static void buildEntitiesMap(SchemaRegistry registry, Map<String, ModelClass> elements,
+            TypeDefinition classPath) {
         String className = classPath.type;
         if (elements.containsKey(className)) {
             return;
         }
         ModelClass modelClass = new ModelClass(className, new LinkedHashMap<>(), null);
         elements.put(className, modelClass);
-        Map<String, Map<String, ?>> propertiesFromAPI = (Map<String, Map<String, ?>>) classPath.definition
-                .get("properties");
-        for (Map.Entry<String, Map<String, ?>> propertyFromAPI : propertiesFromAPI.entrySet()) {
+        Map<String, ApiSchemaProperty> propertiesFromAPI = classPath.definition.getProperties();
+        for (Map.Entry<String, ApiSchemaProperty> propertyFromAPI : propertiesFromAPI.entrySet()) {
             String propertyName = propertyFromAPI.getKey();
             List<TypeDefinition> types = new ArrayList<>();
-            getTypes(types, jsonDocument, propertyFromAPI.getValue());
+            getTypes(types, registry, propertyFromAPI.getValue());
             if (types.isEmpty()) {
                 return;
             }
@@ -109,7 +123,7 @@ public class APIParser {
                     null, null, null, null);
             for (TypeDefinition type : types) {
                 if (type.definition != null) {
-                    buildEntitiesMap(jsonDocument, elements, type);
+                    buildEntitiesMap(registry, elements, type);
                 }
             }
 
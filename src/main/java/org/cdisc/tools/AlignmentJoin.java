@@ -0,0 +1,140 @@
+package org.cdisc.tools;
+
+import org.cdisc.tools.GeneratorApp.ColumnName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Alignment of the classes and attributes of the API, the CT spreadsheet and
+ * the UML model, as written to alignment.csv: one record per class missing
+ * from any of them, and one per attribute missing from any of them (except id
+ * and instanceType, which are not expected everywhere).
+ * Each class is aligned on its own, in parallel, as a merge join of three
+ * sorted arrays of attribute keys. API property names are mapped to the key of
+ * the model or CT attribute they stand for (i.e. "activityIds" to
+ * "activities") once per class before the join, so the join itself only
+ * compares strings.
+ */
+public final class AlignmentJoin {
+
+    private static final Set<String> OPTIONAL_IN_UML = Set.of("instanceType");
+    private static final Set<String> OPTIONAL_IN_CT = Set.of("id", "instanceType");
+    private static final String[] NONE = new String[0];
+
+    private AlignmentJoin() {
+    }
+
+    /**
+     * @return the records, by class then attribute key, keyed by the labels of
+     *         ColumnName
+     */
+    public static List<Map<String, Object>> align(Map<String, ModelClass> apiElements,
+            Map<String, ModelClass> modelElements, Map<String, ModelClass> cptElements) {
+        Set<String> classNames = new TreeSet<>(apiElements.keySet());
+        classNames.addAll(modelElements.keySet());
+        classNames.addAll(cptElements.keySet());
+        // The parallel stream keeps the order of the classes
+        return classNames.parallelStream()
+                .map(className -> alignClass(className, apiElements.get(className), modelElements.get(className),
+                        cptElements.get(className)))
+                .flatMap(List::stream).toList();
+    }
+
+    private static List<Map<String, Object>> alignClass(String className, ModelClass api, ModelClass model,
+            ModelClass cpt) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        if (api == null || model == null || cpt == null) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put(ColumnName.CLASS.label, className);
+            putIfNotEmpty(record, ColumnName.API.label, api == null ? null : className);
+            putIfNotEmpty(record, ColumnName.CT.label, cpt == null ? null : className);
+            putIfNotEmpty(record, ColumnName.UML_DD.label, model == null ? null : className);
+            records.add(record);
+        }
+        String[] umlKeys = sortedKeys(model == null ? null : model.getProperties().keySet());
+        String[] cptKeys = sortedKeys(cpt == null ? null : cpt.getProperties().keySet());
+        Map<String, String> apiNames = apiNamesByKey(api, umlKeys, cptKeys);
+        String[] apiKeys = sortedKeys(apiNames.keySet());
+        int u = 0;
+        int c = 0;
+        int a = 0;
+        while (u < umlKeys.length || c < cptKeys.length || a < apiKeys.length) {
+            String key = min(min(u < umlKeys.length ? umlKeys[u] : null, c < cptKeys.length ? cptKeys[c] : null),
+                    a < apiKeys.length ? apiKeys[a] : null);
+            boolean inUml = u < umlKeys.length && umlKeys[u].equals(key);
+            boolean inCpt = c < cptKeys.length && cptKeys[c].equals(key);
+            String apiName = a < apiKeys.length && apiKeys[a].equals(key) ? apiNames.get(key) : null;
+            u += inUml ? 1 : 0;
+            c += inCpt ? 1 : 0;
+            a += apiName != null ? 1 : 0;
+            if (apiName == null || (!inUml && !OPTIONAL_IN_UML.contains(key))
+                    || (!inCpt && !OPTIONAL_IN_CT.contains(key))) {
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put(ColumnName.CLASS.label, className);
+                record.put(ColumnName.ATTRIBUTE.label, key);
+                putIfNotEmpty(record, ColumnName.API.label, apiName);
+                putIfNotEmpty(record, ColumnName.CT.label, inCpt ? key : null);
+                putIfNotEmpty(record, ColumnName.UML_DD.label, inUml ? key : null);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Maps the properties of an API class to the model or CT attribute they stand
+     * for, or else to their own name. A property may also stand for one seen
+     * before it in the API, and when several stand for the same key, the last one
+     * is kept.
+     */
+    private static Map<String, String> apiNamesByKey(ModelClass api, String[] umlKeys, String[] cptKeys) {
+        Map<String, String> apiNames = new HashMap<>();
+        if (api == null) {
+            return apiNames;
+        }
+        Set<String> keys = new HashSet<>(Arrays.asList(umlKeys));
+        keys.addAll(Arrays.asList(cptKeys));
+        for (String name : api.getProperties().keySet()) {
+            String key = name;
+            for (String synonym : AttributeSynonyms.fromIds(name)) {
+                if (keys.contains(synonym)) {
+                    key = synonym;
+                    break;
+                }
+            }
+            keys.add(key);
+            apiNames.put(key, name);
+        }
+        return apiNames;
+    }
+
+    private static String[] sortedKeys(Set<String> keys) {
+        if (keys == null) {
+            return NONE;
+        }
+        String[] sorted = keys.toArray(NONE);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String min(String first, String second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private static void putIfNotEmpty(Map<String, Object> record, String label, String value) {
+        if (value != null && !value.isEmpty()) {
+            record.put(label, value);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.cdisc.tools;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Entry of components.schemas in the USDM API document, limited to what the
+ * generators use
+ */
+public class ApiSchema {
+    @Getter
+    private String name;
+    @Getter
+    private String title;
+    // null when the schema has no properties
+    @Getter
+    private Map<String, ApiSchemaProperty> properties;
+
+    public ApiSchema(String name, String title, Map<String, ApiSchemaProperty> properties) {
+        this.name = name;
+        this.title = title;
+        this.properties = properties;
+    }
+}
@@ -0,0 +1,41 @@
+package org.cdisc.tools;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Property (or array item, or anyOf alternative) of an API schema, limited to
+ * the keywords the generators use
+ */
+public class ApiSchemaProperty {
+    // "type", when it is a single type name
+    @Getter
+    private String type;
+    @Getter
+    private ApiSchemaProperty items;
+    @Getter
+    private String ref;
+    @Getter
+    private List<ApiSchemaProperty> anyOf;
+    // Whether "const" is present
+    @Getter
+    private boolean constant;
+    // String, Boolean or BigDecimal, null for null, objects and arrays
+    @Getter
+    private Object constValue;
+
+    public ApiSchemaProperty(String type, ApiSchemaProperty items, String ref, List<ApiSchemaProperty> anyOf,
+            boolean constant, Object constValue) {
+        this.type = type;
+        this.items = items;
+        this.ref = ref;
+        this.anyOf = anyOf;
+        this.constant = constant;
+        this.constValue = constValue;
+    }
+
+    public static ApiSchemaProperty ofRef(String ref) {
+        return new ApiSchemaProperty(null, null, ref, null, false, null);
+    }
+}
@@ -0,0 +1,151 @@
+package org.cdisc.tools;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader of the USDM API document.
+ * Only components.schemas is materialized, as ApiSchema instances holding the
+ * keywords the generators use; "paths"
+ * and everything else is skipped token by token, so memory does not grow with
+ * the parts of the specification that are
+ * never used.
+ */
+public class ApiSchemaReader {
+
+    private ApiSchemaReader() {
+    }
+
+    /**
+     * @param stream - UTF-8 JSON document
+     * @return schemas by name
+     */
+    public static Map<String, ApiSchema> read(InputStream stream) throws IOException {
+        Map<String, ApiSchema> schemas = new LinkedHashMap<>();
+        JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        // The JsonPath default provider this replaces was permissive too
+        reader.setLenient(true);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("components") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("schemas") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        readSchemas(reader, schemas);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return schemas;
+    }
+
+    private static void readSchemas(JsonReader reader, Map<String, ApiSchema> schemas) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String title = null;
+            Map<String, ApiSchemaProperty> properties = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (key.equals("title") && reader.peek() == JsonToken.STRING) {
+                    title = reader.nextString();
+                } else if (key.equals("properties") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    // Document order, the attribute order of the generated files depends on it
+                    properties = new LinkedHashMap<>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String propertyName = reader.nextName();
+                        ApiSchemaProperty property = readProperty(reader);
+                        if (property != null) {
+                            properties.put(propertyName, property);
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            schemas.put(name, new ApiSchema(name, title, properties));
+        }
+        reader.endObject();
+    }
+
+    // Returns null, after skipping it, when the value is not an object
+    private static ApiSchemaProperty readProperty(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String type = null;
+        ApiSchemaProperty items = null;
+        String ref = null;
+        List<ApiSchemaProperty> anyOf = null;
+        boolean constant = false;
+        Object constValue = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            JsonToken token = reader.peek();
+            if (key.equals("type") && token == JsonToken.STRING) {
+                type = reader.nextString();
+            } else if (key.equals("items")) {
+                items = readProperty(reader);
+            } else if (key.equals("$ref") && token == JsonToken.STRING) {
+                ref = reader.nextString();
+            } else if (key.equals("anyOf") && token == JsonToken.BEGIN_ARRAY) {
+                anyOf = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    ApiSchemaProperty alternative = readProperty(reader);
+                    if (alternative != null) {
+                        anyOf.add(alternative);
+                    }
+                }
+                reader.endArray();
+            } else if (key.equals("const")) {
+                constant = true;
+                constValue = readScalar(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new ApiSchemaProperty(type, items, ref, anyOf, constant, constValue);
+    }
+
+    private static Object readScalar(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return new BigDecimal(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+}
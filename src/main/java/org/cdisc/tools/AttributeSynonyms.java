@@ -0,0 +1,102 @@
+package org.cdisc.tools;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Naming rules relating UML attribute names to API property names (i.e.
+ * "activities" in the model is "activityIds" in
+ * the API).
+ * Synonym sets are computed once per name and memoized, and matching an
+ * attribute against the properties of an API
+ * class is a sequence of hash lookups in synonym order, so the common "not
+ * found" case costs a failed map lookup
+ * rather than a PathNotFoundException.
+ */
+public class AttributeSynonyms {
+
+    private static final Map<String, Set<String>> toIdsCache = new ConcurrentHashMap<>();
+    private static final Map<String, Set<String>> fromIdsCache = new ConcurrentHashMap<>();
+
+    private AttributeSynonyms() {
+    }
+
+    /**
+     * Names the API may use for a model attribute, the attribute name itself
+     * first
+     */
+    public static Set<String> toIds(String name) {
+        return toIdsCache.computeIfAbsent(name, AttributeSynonyms::computeToIds);
+    }
+
+    /**
+     * Names a model attribute may have for an API property, the property name
+     * itself first
+     */
+    public static Set<String> fromIds(String name) {
+        return fromIdsCache.computeIfAbsent(name, AttributeSynonyms::computeFromIds);
+    }
+
+    /**
+     * Finds the API property of a model attribute and removes it from
+     * apiProperties, so it is not matched twice
+     *
+     * @param name          - Model attribute name
+     * @param apiProperties - Properties of the API class still unmatched
+     * @return the matching API property name, or null
+     */
+    public static String matchAndRemove(String name, Map<String, ?> apiProperties) {
+        for (String synonym : toIds(name)) {
+            if (apiProperties.containsKey(synonym)) {
+                apiProperties.remove(synonym);
+                return synonym;
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> computeToIds(String name) {
+        Set<String> synonyms = new LinkedHashSet<>();
+        synonyms.add(name);
+        synonyms.add(name + "Id");
+        synonyms.add(name + "Ids");
+        if (name.endsWith("s")) {
+            synonyms.add(name.substring(0, name.length() - "s".length()) + "Ids");
+        }
+        if (name.endsWith("ies")) {
+            synonyms.add(name.substring(0, name.length() - "ies".length()) + "yIds");
+        }
+        if (name.contains("children")){
+            synonyms.add(name.replace("children", "child") + "Ids");
+        }
+        if (name.contains("criteria")){
+            synonyms.add(name.replace("criteria", "criterion") + "Ids");
+        }
+        return Collections.unmodifiableSet(synonyms);
+    }
+
+    private static Set<String> computeFromIds(String name) {
+        Set<String> synonyms = new LinkedHashSet<>();
+        synonyms.add(name);
+        if (name.endsWith("Id")) {
+            synonyms.add(name.substring(0, name.length() - "Id".length()));
+        }
+        if (name.endsWith("yIds")) {
+            synonyms.add(name.substring(0, name.length() - "yIds".length()) + "ies");
+        }
+        if (name.endsWith("Ids")) {
+            synonyms.add(name.substring(0, name.length() - "Ids".length()) + "s");
+            synonyms.add(name.substring(0, name.length() - "Ids".length()));
+        }
+        if (name.contains("child") && name.endsWith("Ids")){
+            synonyms.add(name.substring(0, name.length() - "Ids".length()).replace("child", "children"));
+        }
+        if (name.contains("criterion") && name.endsWith("Ids")){
+            synonyms.add(name.substring(0, name.length() - "Ids".length()).replace("criterion", "criteria"));
+        }
+        return Collections.unmodifiableSet(synonyms);
+    }
+}
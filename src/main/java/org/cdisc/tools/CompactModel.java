@@ -0,0 +1,39 @@
+package org.cdisc.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Turns a loaded model into its compact, read only form: every class and
+ * property is frozen, equal strings (names, types, multiplicities, class
+ * references) are shared through one StringPool, and the class and property
+ * maps are replaced by array backed FrozenMaps that keep their iteration order.
+ * Anything trying to change a compact model fails with an IllegalStateException
+ * (setters) or an UnsupportedOperationException (collections).
+ */
+public final class CompactModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactModel.class);
+
+    private CompactModel() {
+    }
+
+    /**
+     * Freezes the classes of model in place and returns a compact copy of the map
+     * itself. The classes must not be changed through model afterwards either.
+     */
+    public static Map<String, ModelClass> freeze(Map<String, ModelClass> model) {
+        if (model instanceof FrozenMap) {
+            return model;
+        }
+        StringPool pool = new StringPool();
+        for (ModelClass modelClass : model.values()) {
+            modelClass.freeze(pool);
+        }
+        Map<String, ModelClass> compact = FrozenMap.copyOf(model, pool);
+        logger.debug(String.format("Froze %1$d classes, %2$d distinct strings", compact.size(), pool.size()));
+        return compact;
+    }
+}
@@ -0,0 +1,132 @@
+package org.cdisc.tools;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Immutable index of the CT spreadsheet rows, built once per spreadsheet.
+ * Only Entity, Relationship, Attribute and Complex Datatype Relationship rows
+ * are kept, in sheet order. Entity rows
+ * are keyed by entity name and the other ones by (entity name, logical data
+ * model name), so enriching a model is a hash
+ * join on its class and property names instead of a scan over every row.
+ */
+public final class CptIndex {
+
+    public static final String ENTITY_ROLE = "Entity";
+    public static final Set<String> PROPERTY_ROLES = Set.of("Relationship", "Attribute",
+            "Complex Datatype Relationship");
+
+    public record Key(String entityName, String logicalDataModelName) {
+    }
+
+    private final List<CptRecord> records;
+    // Entity name -> positions in records of its Entity rows
+    private final Map<String, List<Integer>> entityRows = new HashMap<>();
+    // (Entity name, logical data model name) -> positions in records of its property rows
+    private final Map<Key, List<Integer>> propertyRows = new HashMap<>();
+    // Entity name -> positions of property rows that stop before the logical data model name
+    private final Map<String, List<Integer>> incompleteRows = new HashMap<>();
+
+    public CptIndex(List<CptRecord> rows) {
+        List<CptRecord> kept = new ArrayList<>();
+        for (CptRecord record : rows) {
+            if (!record.has(CptRecord.Column.ROLE)) {
+                continue;
+            }
+            int position = kept.size();
+            if (record.role().equals(ENTITY_ROLE)) {
+                entityRows.computeIfAbsent(record.entityName(), k -> new ArrayList<>()).add(position);
+            } else if (PROPERTY_ROLES.contains(record.role())) {
+                if (record.has(CptRecord.Column.LOGICAL_DATA_MODEL_NAME)) {
+                    propertyRows.computeIfAbsent(new Key(record.entityName(), record.logicalDataModelName()),
+                            k -> new ArrayList<>()).add(position);
+                } else {
+                    incompleteRows.computeIfAbsent(record.entityName(), k -> new ArrayList<>()).add(position);
+                }
+            } else {
+                continue;
+            }
+            kept.add(record);
+        }
+        this.records = List.copyOf(kept);
+    }
+
+    /**
+     * Streams the spreadsheet into a new index, without holding the rows that
+     * are not indexed
+     */
+    public static CptIndex read(CptSpreadsheetReader reader) throws IOException {
+        List<CptRecord> rows = new ArrayList<>();
+        reader.read(record -> {
+            if (record.has(CptRecord.Column.ROLE)) {
+                rows.add(record);
+            }
+        });
+        return new CptIndex(rows);
+    }
+
+    /**
+     * Indexed rows, in sheet order
+     */
+    public List<CptRecord> getRecords() {
+        return records;
+    }
+
+    public List<Integer> getEntityRows(String entityName) {
+        return entityRows.getOrDefault(entityName, List.of());
+    }
+
+    public List<Integer> getPropertyRows(String entityName, String logicalDataModelName) {
+        return propertyRows.getOrDefault(new Key(entityName, logicalDataModelName), List.of());
+    }
+
+    /**
+     * Positions, in sheet order, of the rows that apply to the classes of the
+     * model or to their properties. Property rows
+     * of those classes that are too short to name a property are included too,
+     * so callers reading them fail on the same
+     * row a sequential scan would.
+     */
+    public List<Integer> matching(Map<String, ModelClass> modelElements) {
+        List<Integer> positions = new ArrayList<>();
+        for (Map.Entry<String, ModelClass> entry : modelElements.entrySet()) {
+            String className = entry.getKey();
+            positions.addAll(getEntityRows(className));
+            positions.addAll(incompleteRows.getOrDefault(className, List.of()));
+            for (String propertyName : entry.getValue().getProperties().keySet()) {
+                positions.addAll(getPropertyRows(className, propertyName));
+            }
+        }
+        Collections.sort(positions);
+        return positions;
+    }
+
+    /**
+     * Positions, in sheet order, of the rows naming a class that is not in the
+     * model, or a property that its class does not
+     * have. These are the rows a sequential scan would have warned about.
+     */
+    public List<Integer> unmatched(Map<String, ModelClass> modelElements) {
+        List<Integer> positions = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : entityRows.entrySet()) {
+            if (!modelElements.containsKey(entry.getKey())) {
+                positions.addAll(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : incompleteRows.entrySet()) {
+            if (!modelElements.containsKey(entry.getKey())) {
+                positions.addAll(entry.getValue());
+            }
+        }
+        for (Map.Entry<Key, List<Integer>> entry : propertyRows.entrySet()) {
+            ModelClass modelClass = modelElements.get(entry.getKey().entityName());
+            if (modelClass == null
+                    || !modelClass.getProperties().containsKey(entry.getKey().logicalDataModelName())) {
+                positions.addAll(entry.getValue());
+            }
+        }
+        Collections.sort(positions);
+        return positions;
+    }
+}
@@ -1,21 +1,11 @@
 package org.cdisc.tools;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.CSVRecord;
-import org.apache.commons.io.input.BOMInputStream;
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
-import org.apache.poi.xssf.extractor.XSSFExcelExtractor;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.xmlbeans.XmlException;
+import org.cdisc.tools.CptRecord.Column;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
+import java.net.URL;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,109 +19,70 @@ import java.util.TreeMap;
  * or anything that cannot be interpreted by apache poi directly. In such cases
  * the spreadsheet itself has been fixed
  * before submitted to this process.
+ * The spreadsheet is read once, into a CptIndex shared by populateMapwithCpt
+ * and getEntitiesMap.
  */
 public class CptParser {
 
     private static final Logger logger = LoggerFactory.getLogger(CptParser.class);
 
     private String inputFileName;
-    private String tmpCsvFileName;
+    private final CptIndex index;
 
-    private enum Column {
-        ROW_NUMBER,
-        ENTITY_NAME,
-        ROLE,
-        INHERITED_FROM,
-        LOGICAL_DATA_MODEL_NAME,
-        NCI_C_CODE,
-        CT_ITEM_PREFERRED_NAME,
-        SYNONYMS,
-        DEFINITION,
-        HAS_VALUE_LIST,
-        CODELIST_URL
+    public CptParser(String inputFileName) throws IOException {
+        this(inputFileName, CptParser.class.getClassLoader().getResource(inputFileName));
     }
 
-    public CptParser(String inputFileName) throws OpenXML4JException, XmlException, IOException {
+    /**
+     * Reads the spreadsheet from anywhere, i.e. out of a git repository
+     */
+    public CptParser(URL url) throws IOException {
+        this(url.toString(), url);
+    }
+
+    private CptParser(String inputFileName, URL url) throws IOException {
         this.inputFileName = inputFileName;
-        try {
-            var tmpUrl = CptParser.class.getProtectionDomain().getCodeSource().getLocation().toURI();
-            // A temp csv file will always be generated as part of parsing the incoming
-            // Excel file
-            tmpCsvFileName = tmpUrl.getPath() + "output.csv";
-            generateCsvFileFromCptSpreadsheet();
-        } catch (URISyntaxException e) {
-            throw new RuntimeException(e);
+        if (url == null) {
+            throw new FileNotFoundException(inputFileName);
         }
-
+        index = CptIndex.read(new CptSpreadsheetReader(url));
+        logger.debug(String.format("Indexed %1$d CT rows from %2$s", index.getRecords().size(), inputFileName));
     }
 
-    private void generateCsvFileFromCptSpreadsheet() throws URISyntaxException, IOException, InvalidFormatException {
-        var url = CptParser.class.getClassLoader().getResource(this.inputFileName);
-        XSSFWorkbook workbook = new XSSFWorkbook(new File(url.toURI().getPath()));
-        CSVPrinter printer = new CSVPrinter(new FileWriter(tmpCsvFileName), CSVFormat.RFC4180.withDelimiter(','));
-
-        String extractor = new XSSFExcelExtractor(workbook).getText();
-        BufferedReader reader = new BufferedReader(new StringReader(extractor));
-        reader.lines().map(line -> line.split("\t")).forEach(element -> {
-            try {
-                printer.printRecord(element);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+    public CptIndex getIndex() {
+        return index;
     }
 
     /**
      * This is the primary method, in charge of populating the ModelClass instance
      * with details from the spreadsheet
-     * 
+     * Only the rows matching a class or a property of modelElements are visited,
+     * in sheet order. The other rows are logged as warnings.
+     *
      * @param modelElements
-     * @throws IOException
      */
-    public void populateMapwithCpt(Map<String, ModelClass> modelElements) throws IOException {
+    public void populateMapwithCpt(Map<String, ModelClass> modelElements) {
         logger.debug("ENTER - populateMapwithCpt");
-        Reader reader = new InputStreamReader(new BOMInputStream(new FileInputStream((tmpCsvFileName))),
-                StandardCharsets.UTF_8);
-        try (reader;
-                CSVParser parser = new CSVParser(reader, CSVFormat.RFC4180.withSkipHeaderRecord().withDelimiter(','))) {
-            for (final CSVRecord record : parser) {
-                if (record.size() > Column.ROLE.ordinal()) {
-                    String elementType = record.get(Column.ROLE.ordinal());
-
-                    ModelClass modelClass = modelElements.get(record.get(Column.ENTITY_NAME.ordinal()));
-                    // These null checks are necessary to cover inconsistencies between XMI and CT
-                    // Spreadsheet
-                    if (modelClass != null) {
-                        if (elementType.equals("Entity")) {
-                            if (record.size() > Column.DEFINITION.ordinal())
-                                modelClass.setDefinition(record.get(Column.DEFINITION.ordinal()));
-                            modelClass.setPreferredTerm(record.get(Column.CT_ITEM_PREFERRED_NAME.ordinal()));
-                            modelClass.setDefNciCode(record.get(Column.NCI_C_CODE.ordinal()));
-                        } else if (elementType.equals("Relationship") || elementType.equals("Attribute")
-                                || elementType.equals("Complex Datatype Relationship")) {
-                            ModelClassProperty property = modelElements
-                                    .get(record.get(Column.ENTITY_NAME.ordinal())).getProperties()
-                                    .get(record.get(Column.LOGICAL_DATA_MODEL_NAME.ordinal()));
-                            if (property != null) {
-                                if (record.size() > Column.DEFINITION.ordinal()) {
-                                    // Update Description and CodeList references
-                                    property.setDefinition(record.get(Column.DEFINITION.ordinal()));
-                                    property.setPreferredTerm(record.get(Column.CT_ITEM_PREFERRED_NAME.ordinal()));
-                                    property.setDefNciCode(record.get(Column.NCI_C_CODE.ordinal()));
-                                    if (record.get(Column.HAS_VALUE_LIST.ordinal()).trim().toUpperCase()
-                                            .contains("Y")) {
-                                        String codeListRef = record.get(Column.HAS_VALUE_LIST.ordinal())
-                                                .replace("Y", "").trim();
-                                        property.setCodeListReference(List.of(codeListRef));
-                                    }
-                                }
-                            } else {
-                                logger.warn("Could not find Property: "
-                                        + record.get(Column.LOGICAL_DATA_MODEL_NAME.ordinal()));
-                            }
-                        }
-                    } else {
-                        logger.warn("Could not find Class: " + record.get(Column.ENTITY_NAME.ordinal()));
+        List<Integer> matches = index.matching(modelElements);
+        logger.debug(String.format("%1$d of %2$d CT rows match the model", matches.size(),
+                index.getRecords().size()));
+        try {
+            for (int position : matches) {
+                CptRecord record = index.getRecords().get(position);
+                ModelClass modelClass = modelElements.get(record.entityName());
+                if (record.role().equals(CptIndex.ENTITY_ROLE)) {
+                    if (record.has(Column.DEFINITION))
+                        modelClass.setDefinition(record.definition());
+                    modelClass.setPreferredTerm(record.preferredName());
+                    modelClass.setDefNciCode(record.nciCode());
+                } else {
+                    ModelClassProperty property = modelClass.getProperties().get(record.logicalDataModelName());
+                    if (record.has(Column.DEFINITION)) {
+                        // Update Description and CodeList references
+                        property.setDefinition(record.definition());
+                        property.setPreferredTerm(record.preferredName());
+                        property.setDefNciCode(record.nciCode());
+                        setCodeListReference(property, record);
                     }
                 }
                 logger.debug(record.toString());
@@ -139,47 +90,51 @@ public class CptParser {
         } catch (Exception e) {
             logger.error(e.getMessage());
         }
+        // These warnings cover inconsistencies between XMI and CT Spreadsheet
+        for (int position : index.unmatched(modelElements)) {
+            CptRecord record = index.getRecords().get(position);
+            if (modelElements.containsKey(record.entityName())) {
+                logger.warn("Could not find Property: " + record.logicalDataModelName());
+            } else {
+                logger.warn("Could not find Class: " + record.entityName());
+            }
+        }
         logger.debug("LEAVE - populateMapwithCpt");
     }
 
-    public Map<String, ModelClass> getEntitiesMap() throws FileNotFoundException {
-        logger.debug("ENTER - Get CSV Entities");
-        Map<String, ModelClass> elements = new TreeMap<>();
-        Reader reader = new InputStreamReader(new BOMInputStream(new FileInputStream((tmpCsvFileName))),
-                StandardCharsets.UTF_8);
-        try (reader;
-                CSVParser parser = new CSVParser(reader, CSVFormat.RFC4180.withSkipHeaderRecord().withDelimiter(','))) {
-            for (final CSVRecord record : parser) {
-                if (record.size() > Column.ROLE.ordinal()) {
-                    // These null checks are necessary to cover inconsistencies between XMI and CT
-                    // Spreadsheet
-                    String className = record.get(Column.ENTITY_NAME.ordinal());
-                    String elementType = record.get(Column.ROLE.ordinal());
-                    if (elementType.equals("Entity")) {
-                        ModelClass modelClass = new ModelClass(className, new LinkedHashMap<>(), null);
-                        elements.put(className, modelClass);
-                        if (record.size() > Column.DEFINITION.ordinal())
-                            modelClass.setDefinition(record.get(Column.DEFINITION.ordinal()));
-                        modelClass.setPreferredTerm(record.get(Column.CT_ITEM_PREFERRED_NAME.ordinal()));
-                        modelClass.setDefNciCode(record.get(Column.NCI_C_CODE.ordinal()));
-                    } else if (elementType.equals("Relationship") || elementType.equals("Attribute")
-                            || elementType.equals("Complex Datatype Relationship")) {
-                        String propertyName = record.get(Column.LOGICAL_DATA_MODEL_NAME.ordinal());
-                        ModelClassProperty property = new ModelClassProperty(propertyName, null, null, null, null,
-                                null);
-                        elements.get(className).getProperties().put(propertyName, property);
-                        if (record.size() > Column.DEFINITION.ordinal()) {
-                            // Update Description and CodeList references
-                            property.setDefinition(record.get(Column.DEFINITION.ordinal()));
-                            property.setPreferredTerm(record.get(Column.CT_ITEM_PREFERRED_NAME.ordinal()));
-                            property.setDefNciCode(record.get(Column.NCI_C_CODE.ordinal()));
-                            if (record.get(Column.HAS_VALUE_LIST.ordinal()).trim().toUpperCase().contains("Y")) {
-                                String codeListRef = record.get(Column.HAS_VALUE_LIST.ordinal()).replace("Y", "")
-                                        .trim();
-                                property.setCodeListReference(List.of(codeListRef));
-                            }
-                        }
+    private static void setCodeListReference(ModelClassProperty property, CptRecord record) {
+        if (record.hasValueList().trim().toUpperCase().contains("Y")) {
+            String codeListRef = record.hasValueList().replace("Y", "").trim();
+            property.setCodeListReference(List.of(codeListRef));
+        }
+    }
 
+    public Map<String, ModelClass> getEntitiesMap() {
+        logger.debug("ENTER - Get CT Entities");
+        Map<String, ModelClass> elements = new TreeMap<>();
+        try {
+            for (CptRecord record : index.getRecords()) {
+                // These null checks are necessary to cover inconsistencies between XMI and CT
+                // Spreadsheet
+                String className = record.entityName();
+                if (record.role().equals(CptIndex.ENTITY_ROLE)) {
+                    ModelClass modelClass = new ModelClass(className, new LinkedHashMap<>(), null);
+                    elements.put(className, modelClass);
+                    if (record.has(Column.DEFINITION))
+                        modelClass.setDefinition(record.definition());
+                    modelClass.setPreferredTerm(record.preferredName());
+                    modelClass.setDefNciCode(record.nciCode());
+                } else {
+                    String propertyName = record.logicalDataModelName();
+                    ModelClassProperty property = new ModelClassProperty(propertyName, null, null, null, null,
+                            null);
+                    elements.get(className).getProperties().put(propertyName, property);
+                    if (record.has(Column.DEFINITION)) {
+                        // Update Description and CodeList references
+                        property.setDefinition(record.definition());
+                        property.setPreferredTerm(record.preferredName());
+                        property.setDefNciCode(record.nciCode());
+                        setCodeListReference(property, record);
                     }
                 }
                 logger.debug(record.toString());
@@ -187,7 +142,7 @@ public class CptParser {
         } catch (Exception e) {
             logger.error(e.getMessage());
         }
-        logger.debug("LEAVE - Get CSV Entities");
+        logger.debug("LEAVE - Get CT Entities");
         return elements;
     }
 }
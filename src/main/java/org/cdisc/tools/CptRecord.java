@@ -0,0 +1,80 @@
+package org.cdisc.tools;
+
+import java.util.List;
+
+/**
+ * One row of the CT spreadsheet.
+ * Cells are kept in column order: blank cells between two values are "" and
+ * trailing blank cells are dropped, so the
+ * number of cells tells how much of the row has been filled in (see has).
+ *
+ * @param sheetName - Worksheet the row belongs to
+ * @param rowNumber - 0 based row index in the worksheet
+ * @param cells     - Formatted cell values
+ */
+public record CptRecord(String sheetName, int rowNumber, List<String> cells) {
+
+    /**
+     * Expected layout of the CT spreadsheet columns
+     */
+    public enum Column {
+        ROW_NUMBER,
+        ENTITY_NAME,
+        ROLE,
+        INHERITED_FROM,
+        LOGICAL_DATA_MODEL_NAME,
+        NCI_C_CODE,
+        CT_ITEM_PREFERRED_NAME,
+        SYNONYMS,
+        DEFINITION,
+        HAS_VALUE_LIST,
+        CODELIST_URL
+    }
+
+    public CptRecord {
+        cells = List.copyOf(cells);
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    public boolean has(Column column) {
+        return cells.size() > column.ordinal();
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException when the row stops before column
+     */
+    public String get(Column column) {
+        return cells.get(column.ordinal());
+    }
+
+    public String entityName() {
+        return get(Column.ENTITY_NAME);
+    }
+
+    public String role() {
+        return get(Column.ROLE);
+    }
+
+    public String logicalDataModelName() {
+        return get(Column.LOGICAL_DATA_MODEL_NAME);
+    }
+
+    public String nciCode() {
+        return get(Column.NCI_C_CODE);
+    }
+
+    public String preferredName() {
+        return get(Column.CT_ITEM_PREFERRED_NAME);
+    }
+
+    public String definition() {
+        return get(Column.DEFINITION);
+    }
+
+    public String hasValueList() {
+        return get(Column.HAS_VALUE_LIST);
+    }
+}
@@ -0,0 +1,134 @@
+package org.cdisc.tools;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Event based reader of the CT spreadsheet.
+ * Worksheets are streamed with POI's XSSFReader and SAX sheet handler, and
+ * every row is handed over as a CptRecord as
+ * soon as it ends, so only the shared strings table and the current row are
+ * held in memory. Cells are placed by their
+ * cell reference, so values containing tabs or line breaks, and missing cells,
+ * do not shift the following columns.
+ */
+public class CptSpreadsheetReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CptSpreadsheetReader.class);
+
+    private final URL spreadsheet;
+
+    /**
+     * @param spreadsheet - Location of the xlsx file. file: URLs are opened
+     *                    read only, anything else is read from a stream
+     */
+    public CptSpreadsheetReader(URL spreadsheet) {
+        this.spreadsheet = spreadsheet;
+    }
+
+    /**
+     * Reads every worksheet, in workbook order
+     *
+     * @param consumer - Receives each row as soon as it has been read
+     */
+    public void read(Consumer<CptRecord> consumer) throws IOException {
+        try (OPCPackage pkg = open()) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            DataFormatter formatter = new DataFormatter();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    String sheetName = sheets.getSheetName();
+                    logger.debug(String.format("Reading CT worksheet %1$s", sheetName));
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                            new RowCollector(sheetName, consumer), formatter, false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException | URISyntaxException e) {
+            throw new IOException(String.format("Could not read CT spreadsheet %1$s", spreadsheet), e);
+        }
+    }
+
+    /**
+     * Convenience for small workbooks, collecting all rows
+     */
+    public List<CptRecord> readAll() throws IOException {
+        List<CptRecord> records = new ArrayList<>();
+        read(records::add);
+        return records;
+    }
+
+    private OPCPackage open() throws IOException, OpenXML4JException, URISyntaxException {
+        if ("file".equals(spreadsheet.getProtocol())) {
+            return OPCPackage.open(Path.of(spreadsheet.toURI()).toFile(), PackageAccess.READ);
+        }
+        try (InputStream stream = spreadsheet.openStream()) {
+            return OPCPackage.open(stream);
+        }
+    }
+
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final String sheetName;
+        private final Consumer<CptRecord> consumer;
+        private final List<String> cells = new ArrayList<>();
+
+        private RowCollector(String sheetName, Consumer<CptRecord> consumer) {
+            this.sheetName = sheetName;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            int size = cells.size();
+            while (size > 0 && cells.get(size - 1).isEmpty()) {
+                size--;
+            }
+            consumer.accept(new CptRecord(sheetName, rowNum, cells.subList(0, size)));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            String value = formattedValue == null ? "" : formattedValue;
+            if (column < cells.size()) {
+                cells.set(column, value);
+            } else {
+                cells.add(value);
+            }
+        }
+    }
+}
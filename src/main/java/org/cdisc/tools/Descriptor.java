@@ -1,23 +1,63 @@
 package org.cdisc.tools;
 
 import lombok.Getter;
-import lombok.Setter;
 
 public class Descriptor {
     @Getter
-    private final String name;
-    @Getter @Setter
+    private String name;
+    @Getter
     private String definition;
-    @Getter @Setter
+    @Getter
     private String cardinality;
-    @Getter @Setter
+    @Getter
     private String preferredTerm;
-    @Getter @Setter
+    @Getter
     private String defNciCode;
+    // Set by freeze, after which nothing can be changed
+    @Getter
+    private transient boolean frozen;
 
 
     public Descriptor(String name, String definition) {
         this.name = name;
         this.definition = definition;
     }
+
+    public void setDefinition(String definition) {
+        checkNotFrozen();
+        this.definition = definition;
+    }
+
+    public void setCardinality(String cardinality) {
+        checkNotFrozen();
+        this.cardinality = cardinality;
+    }
+
+    public void setPreferredTerm(String preferredTerm) {
+        checkNotFrozen();
+        this.preferredTerm = preferredTerm;
+    }
+
+    public void setDefNciCode(String defNciCode) {
+        checkNotFrozen();
+        this.defNciCode = defNciCode;
+    }
+
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException(String.format("%1$s is frozen", name));
+        }
+    }
+
+    /**
+     * Makes this descriptor immutable, with its strings taken from pool
+     */
+    protected void freeze(StringPool pool) {
+        name = pool.intern(name);
+        definition = pool.intern(definition);
+        cardinality = pool.intern(cardinality);
+        preferredTerm = pool.intern(preferredTerm);
+        defNciCode = pool.intern(defNciCode);
+        frozen = true;
+    }
 }
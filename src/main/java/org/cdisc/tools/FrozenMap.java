@@ -0,0 +1,151 @@
+package org.cdisc.tools;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map with String keys, kept in two parallel arrays in the iteration
+ * order of the map it was copied from.
+ * Small maps are searched linearly; larger ones get an open addressing index of
+ * positions, so a lookup costs no more than in a HashMap while the whole map
+ * takes a fraction of the memory of a LinkedHashMap and its entry objects.
+ */
+public final class FrozenMap<V> extends AbstractMap<String, V> {
+
+    // Up to this size a linear scan beats hashing
+    private static final int LINEAR_SIZE = 8;
+
+    private final String[] keys;
+    private final Object[] values;
+    // Position + 1 of the key hashed to each slot, 0 for an empty slot
+    private final int[] index;
+
+    private FrozenMap(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        if (keys.length <= LINEAR_SIZE) {
+            index = null;
+        } else {
+            index = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+            for (int i = 0; i < keys.length; i++) {
+                int slot = slot(keys[i]);
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & (index.length - 1);
+                }
+                index[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Copies map, with its keys (and its values when they are strings) taken from
+     * pool. Null keys are not supported.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> FrozenMap<V> copyOf(Map<String, V> map, StringPool pool) {
+        if (map instanceof FrozenMap) {
+            return (FrozenMap<V>) map;
+        }
+        String[] keys = new String[map.size()];
+        Object[] values = new Object[map.size()];
+        int i = 0;
+        for (Map.Entry<String, V> entry : map.entrySet()) {
+            keys[i] = pool.intern(entry.getKey());
+            values[i] = entry.getValue() instanceof String ? pool.intern((String) entry.getValue())
+                    : entry.getValue();
+            i++;
+        }
+        return new FrozenMap<>(keys, values);
+    }
+
+    private int slot(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (index.length - 1);
+    }
+
+    private int position(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        if (index == null) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int slot = slot(key); index[slot] != 0; slot = (slot + 1) & (index.length - 1)) {
+            if (keys[index[slot] - 1].equals(key)) {
+                return index[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of slots of the lookup index, 0 for a small map
+     */
+    int indexSize() {
+        return index == null ? 0 : index.length;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int position = position(key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<String, V> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, V> entry = new SimpleImmutableEntry<>(keys[next], (V) values[next]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new FrozenSet(keys);
+    }
+}
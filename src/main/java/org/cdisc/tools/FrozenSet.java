@@ -0,0 +1,85 @@
+package org.cdisc.tools;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of strings kept in an array, in the iteration order of the
+ * collection it was copied from.
+ * The sets of a model (types, super and sub classes) hold a handful of names,
+ * so contains is a linear scan.
+ */
+public final class FrozenSet extends AbstractSet<String> {
+
+    private static final FrozenSet EMPTY = new FrozenSet(new String[0]);
+
+    private final String[] elements;
+
+    FrozenSet(String[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Copies the distinct elements of collection, taken from pool, or returns null
+     * for a null collection.
+     */
+    public static FrozenSet copyOf(Collection<String> collection, StringPool pool) {
+        if (collection == null || collection instanceof FrozenSet) {
+            return (FrozenSet) collection;
+        }
+        if (collection.isEmpty()) {
+            return EMPTY;
+        }
+        String[] elements = new String[collection.size()];
+        int size = 0;
+        for (String element : collection) {
+            String interned = pool.intern(element);
+            boolean duplicate = false;
+            for (int i = 0; i < size && !duplicate; i++) {
+                duplicate = elements[i].equals(interned);
+            }
+            if (!duplicate) {
+                elements[size++] = interned;
+            }
+        }
+        return new FrozenSet(size == elements.length ? elements : Arrays.copyOf(elements, size));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (String element : elements) {
+            if (element.equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.length;
+            }
+
+            @Override
+            public String next() {
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return elements[next++];
+            }
+        };
+    }
+}
@@ -2,13 +2,8 @@ package org.cdisc.tools;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.PathNotFoundException;
 
 import net.steppschuh.markdowngenerator.table.Table;
-import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
-import org.apache.xmlbeans.XmlException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
@@ -17,12 +12,27 @@ import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.DumperOptions.FlowStyle;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPathExpressionException;
-import java.io.FileReader;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -30,7 +40,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -51,126 +64,580 @@ import java.util.stream.Collectors;
 public class GeneratorApp {
 
     // Primary Input file names to generate Dictionary Table
-    private static final String XML_FILE_NAME = "USDM_UML.xmi";
-    private static final String CPT_FILE_NAME = "USDM_CT.xlsx";
-    private static final String API_FILE_NAME = "USDM_API.json";
+    static final String XML_FILE_NAME = "USDM_UML.xmi";
+    static final String CPT_FILE_NAME = "USDM_CT.xlsx";
+    static final String API_FILE_NAME = "USDM_API.json";
     // Folder names used to generate release differences
-    private static final String PREV_RELEASE_FOLDER_NAME = "prevRelease/";
-    private static final String CURR_RELEASE_FOLDER_NAME = "currentRelease/";
+    static final String PREV_RELEASE_FOLDER_NAME = "prevRelease/";
+    static final String CURR_RELEASE_FOLDER_NAME = "currentRelease/";
     // Cardinalities file
-    private static final String CARDINALITY_JSON_FILE_NAME = "cardinalities.json";
+    static final String CARDINALITY_JSON_FILE_NAME = "cardinalities.json";
     // The logger is configured in log4j2.xml. By default it will output to
     // dictionaryGenerator.log and the console
     private static final Logger logger = LoggerFactory.getLogger(GeneratorApp.class);
+    // Optional flag to load the XMI with the single pass StAX loader instead of
+    // the XPath based one
+    private static final String STAX_LOADER_FLAG = "--stax-loader";
+    private static boolean useStaxLoader = false;
+    // Optional flag to keep snapshots of the loaded models on disk, optionally
+    // followed by =<folder>
+    private static final String SNAPSHOT_CACHE_FLAG = "--snapshot-cache";
+    private static final String SNAPSHOT_CACHE_FOLDER_NAME = ".usdm-cache";
+    private static ModelSnapshotCache snapshotCache = null;
+    // Optional flags to read the inputs out of a local DDF-RA git repository, at
+    // the given refs, instead of the bundled resources
+    private static final String GIT_REPO_FLAG = "--git-repo";
+    private static final String PREV_REF_FLAG = "--prev-ref";
+    private static final String CURR_REF_FLAG = "--curr-ref";
+    private static GitBlobSource gitSource = null;
+    private static String prevRef = "main";
+    private static String currRef = "HEAD";
+    // Modes that can run together in one batch, i.e. "--gen-table --gen-structure",
+    // or all of them with --all
+    private static final List<String> BATCH_MODES = List.of("--gen-table", "--compare-releases",
+            "--gen-structure", "--gen-alignment");
+    private static final String ALL_FLAG = "--all";
+    // Mode followed by the releases to track, oldest first
+    private static final String RELEASE_HISTORY_FLAG = "--release-history";
+    // Optional flag to also print the Data Dictionary Table to the console
+    private static final String ECHO_TABLE_FLAG = "--echo-table";
+    private static boolean echoTable = false;
+    // Optional flag to freeze the models once loaded into their compact form and
+    // log their estimated footprint
+    private static final String COMPACT_MODEL_FLAG = "--compact-model";
+    private static boolean compactModel = false;
+    // Optional flag with the number of threads building the classes of
+    // dataStructure.yml, i.e. --parallelism=4
+    private static final String PARALLELISM_FLAG = "--parallelism";
+    private static int parallelism = Runtime.getRuntime().availableProcessors();
+    // Mode writing a synthetic release into a folder, i.e.
+    // --gen-synthetic=target/synthetic --scale=10 --seed=7
+    private static final String SYNTHETIC_FLAG = "--gen-synthetic";
+    private static final String SCALE_FLAG = "--scale";
+    private static final String SEED_FLAG = "--seed";
+    private static int syntheticScale = 1;
+    private static long syntheticSeed = SyntheticRelease.DEFAULT_SEED;
+    // Optional flag to write the wall time, CPU time, allocations and element
+    // counts of every phase as JSON, optionally followed by =<file>
+    private static final String PERF_REPORT_FLAG = "--perf-report";
+    private static final String PERF_REPORT_FILE_NAME = "perfReport.json";
+    private static PerfReport perfReport = null;
+    private static Path perfReportFile = null;
 
-    public static void main(String[] args) throws IOException, ParserConfigurationException, SAXException,
-            XPathExpressionException, OpenXML4JException, XmlException {
-        if (args[0].equals("--gen-table")) {
+    public static void main(String[] args) {
+        Set<String> modes = new LinkedHashSet<>();
+        List<String> releases = new ArrayList<>();
+        Path syntheticFolder = null;
+        for (String arg : args) {
+            if (arg.equals(ALL_FLAG)) {
+                modes.addAll(BATCH_MODES);
+            } else if (BATCH_MODES.contains(arg) || arg.equals(RELEASE_HISTORY_FLAG)) {
+                modes.add(arg);
+            } else if (arg.startsWith(SYNTHETIC_FLAG + "=")) {
+                modes.add(SYNTHETIC_FLAG);
+                syntheticFolder = Path.of(arg.substring(SYNTHETIC_FLAG.length() + 1));
+            } else if (arg.equals(STAX_LOADER_FLAG)) {
+                useStaxLoader = true;
+            } else if (arg.equals(ECHO_TABLE_FLAG)) {
+                echoTable = true;
+            } else if (arg.equals(COMPACT_MODEL_FLAG)) {
+                compactModel = true;
+            } else if (arg.equals(SNAPSHOT_CACHE_FLAG)) {
+                snapshotCache = new ModelSnapshotCache(Path.of(SNAPSHOT_CACHE_FOLDER_NAME));
+            } else if (arg.startsWith(SNAPSHOT_CACHE_FLAG + "=")) {
+                snapshotCache = new ModelSnapshotCache(Path.of(arg.substring(SNAPSHOT_CACHE_FLAG.length() + 1)));
+            } else if (arg.startsWith(GIT_REPO_FLAG + "=")) {
+                gitSource = new GitBlobSource(Path.of(arg.substring(GIT_REPO_FLAG.length() + 1)),
+                        Path.of(SNAPSHOT_CACHE_FOLDER_NAME, "git"));
+            } else if (arg.startsWith(PREV_REF_FLAG + "=")) {
+                prevRef = arg.substring(PREV_REF_FLAG.length() + 1);
+            } else if (arg.startsWith(CURR_REF_FLAG + "=")) {
+                currRef = arg.substring(CURR_REF_FLAG.length() + 1);
+            } else if (arg.startsWith(PARALLELISM_FLAG + "=")) {
+                parallelism = Integer.parseInt(arg.substring(PARALLELISM_FLAG.length() + 1));
+                if (parallelism < 1) {
+                    throw new IllegalArgumentException(String.format("Invalid parallelism: %1$s", arg));
+                }
+            } else if (arg.equals(PERF_REPORT_FLAG)) {
+                perfReportFile = Path.of(PERF_REPORT_FILE_NAME);
+            } else if (arg.startsWith(PERF_REPORT_FLAG + "=")) {
+                perfReportFile = Path.of(arg.substring(PERF_REPORT_FLAG.length() + 1));
+            } else if (arg.startsWith(SCALE_FLAG + "=")) {
+                syntheticScale = Integer.parseInt(arg.substring(SCALE_FLAG.length() + 1));
+            } else if (arg.startsWith(SEED_FLAG + "=")) {
+                syntheticSeed = Long.parseLong(arg.substring(SEED_FLAG.length() + 1));
+            } else if (!arg.startsWith("--")) {
+                // The releases of --release-history, wherever they are
+                releases.add(arg);
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown argument: %1$s", arg));
+            }
+        }
+        if (modes.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "No mode given, expected one of %1$s, %2$s, %3$s or %4$s",
+                    String.join(", ", BATCH_MODES), ALL_FLAG, RELEASE_HISTORY_FLAG, SYNTHETIC_FLAG + "=<folder>"));
+        }
+        if (!releases.isEmpty() && !modes.contains(RELEASE_HISTORY_FLAG)) {
+            throw new IllegalArgumentException(String.format("Unknown argument: %1$s", releases.get(0)));
+        }
+        if (modes.size() > 1 && !BATCH_MODES.containsAll(modes)) {
+            String single = modes.stream().filter(mode -> !BATCH_MODES.contains(mode)).findFirst().get();
+            throw new IllegalArgumentException(String.format("%1$s cannot run together with other modes", single));
+        }
+        if (perfReportFile != null) {
+            perfReport = new PerfReport(Arrays.asList(args));
+        }
+        String mode = modes.iterator().next();
+        if (modes.size() > 1) {
+            runBatch(modes);
+        } else if (mode.equals("--gen-table")) {
             genTable();
-        } else if (args[0].equals("--compare-releases")) {
+        } else if (mode.equals("--compare-releases")) {
             compareReleases();
-        } else if (args[0].equals("--gen-structure")) {
+        } else if (mode.equals("--gen-structure")) {
             genStructure();
-        } else if (args[0].equals("--gen-alignment")) {
+        } else if (mode.equals("--gen-alignment")) {
             genAlignment();
+        } else if (mode.equals(RELEASE_HISTORY_FLAG)) {
+            genReleaseHistory(releases);
+        } else if (mode.equals(SYNTHETIC_FLAG)) {
+            genSynthetic(syntheticFolder);
+        }
+        if (perfReport != null) {
+            try {
+                perfReport.write(perfReportFile);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
         logger.info("All done");
     }
 
-    private static void genTable() throws IOException, ParserConfigurationException, SAXException,
-            XPathExpressionException, OpenXML4JException, XmlException {
+    /**
+     * Where an input comes from: the deliverable at gitPath in ref with
+     * --git-repo, or else the bundled resource
+     */
+    private static URL input(String resourceName, String ref, String gitPath) throws IOException {
+        if (gitSource == null) {
+            return GeneratorApp.class.getClassLoader().getResource(resourceName);
+        }
+        return gitSource.url(ref, gitPath);
+    }
+
+    private static URL currentXmi() throws IOException {
+        return input(CURR_RELEASE_FOLDER_NAME + XML_FILE_NAME, currRef, GitBlobSource.XMI_PATH);
+    }
+
+    private static URL previousXmi() throws IOException {
+        return input(PREV_RELEASE_FOLDER_NAME + XML_FILE_NAME, prevRef, GitBlobSource.XMI_PATH);
+    }
+
+    private static CptParser currentCpt() throws IOException {
+        return gitSource == null ? new CptParser(CPT_FILE_NAME)
+                : new CptParser(gitSource.url(currRef, GitBlobSource.CPT_PATH));
+    }
+
+    private static APIParser currentApi() throws IOException {
+        return gitSource == null ? new APIParser(API_FILE_NAME)
+                : new APIParser(gitSource.url(currRef, GitBlobSource.API_PATH));
+    }
+
+    /**
+     * Options that change what the loaded model looks like, part of the snapshot
+     * keys
+     */
+    private static List<String> loaderOptions() {
+        return List.of(useStaxLoader ? "stax" : "xpath");
+    }
+
+    /**
+     * Loads the UML XMI into elements, from a snapshot when --snapshot-cache is
+     * set and the file has not changed, or else by parsing it and storing a new
+     * snapshot
+     *
+     * @param snapshotKind - Which model this is, i.e. "current-model"
+     */
+    private static void loadModel(URL file, Map<String, ModelClass> elements, String snapshotKind)
+            throws IOException, ParserConfigurationException, SAXException, XPathExpressionException,
+            XMLStreamException {
+        if (snapshotCache == null) {
+            loadModel(file, elements);
+            return;
+        }
+        String key = ModelSnapshotCache.key(snapshotKind, loaderOptions(), file);
+        boolean loaded;
+        try (StageGraph.Phase phase = StageGraph.phase("read snapshot")) {
+            loaded = snapshotCache.load(key, elements);
+            phase.elements(elements.size());
+        }
+        if (!loaded) {
+            loadModel(file, elements);
+            try (StageGraph.Phase phase = StageGraph.phase("store snapshot")) {
+                snapshotCache.store(key, elements);
+                phase.elements(elements.size());
+            }
+        }
+    }
+
+    /**
+     * Loads the UML XMI into elements, either through UsdmParser or through
+     * UsdmStaxParser when --stax-loader is set. Resources that live on the file
+     * system are memory mapped, anything else (i.e. inside a jar) is streamed.
+     */
+    private static void loadModel(URL file, Map<String, ModelClass> elements)
+            throws IOException, ParserConfigurationException, SAXException, XPathExpressionException,
+            XMLStreamException {
+        if (file.getProtocol().equals("file")) {
+            Path path;
+            try {
+                path = Path.of(file.toURI());
+            } catch (URISyntaxException e) {
+                throw new RuntimeException(e);
+            }
+            if (useStaxLoader) {
+                new UsdmStaxParser(path).loadFromUsdmXmi(elements);
+            } else {
+                new UsdmParser(path).loadFromUsdmXmi(elements);
+            }
+        } else {
+            try (InputStream stream = file.openStream()) {
+                if (useStaxLoader) {
+                    new UsdmStaxParser(stream).loadFromUsdmXmi(elements);
+                } else {
+                    new UsdmParser(stream).loadFromUsdmXmi(elements);
+                }
+            }
+        }
+    }
+
+    private static Map<String, ModelClass> loadModel(URL file, String snapshotKind) throws IOException,
+            ParserConfigurationException, SAXException, XPathExpressionException, XMLStreamException {
+        Map<String, ModelClass> elements = new HashMap<>();
+        loadModel(file, elements, snapshotKind);
+        return compact(elements);
+    }
+
+    /**
+     * With --compact-model, freezes a model that is done loading into its compact
+     * form (see CompactModel) and logs its footprint before and after. Otherwise
+     * returns model as is.
+     */
+    private static Map<String, ModelClass> compact(Map<String, ModelClass> model) {
+        if (!compactModel) {
+            return model;
+        }
+        ModelFootprint loose = ModelFootprint.of(model);
+        Map<String, ModelClass> compact = CompactModel.freeze(model);
+        logger.info(String.format("Compact model: %1$s, was %2$,d bytes in %3$d objects",
+                ModelFootprint.of(compact), loose.bytes(), loose.objects()));
+        return compact;
+    }
+
+    private static void genTable() {
         // Generate the Markdown for the Data Dictionary Table
-        try (
-                var currFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(CURR_RELEASE_FOLDER_NAME + XML_FILE_NAME);) {
-            // Process the Main UML XMI Model first
-            UsdmParser usdmParser = new UsdmParser(currFile);
+        try (StageGraph graph = new StageGraph("gen-table", perfReport)) {
             // allModelElements contains a deserialized representation of the UML
-            Map<String, ModelClass> allModelElements = new HashMap<>();
-            usdmParser.loadFromUsdmXmi(allModelElements);
-            if (allModelElements.isEmpty()) {
-                throw new RuntimeException("Possible Usdm XMI Parsing Error. Check file and structure");
-            }
-            // Next, add more detailed information from the CT Spreadsheet
-            CptParser cptParser = new CptParser(CPT_FILE_NAME);
-            cptParser.populateMapwithCpt(allModelElements);
-            // Pull additional cardinalities from json file
-            Gson gson = new Gson();
-            var cardinalityFileUrl = GeneratorApp.class.getClassLoader().getResource(CARDINALITY_JSON_FILE_NAME);
-            var type = new TypeToken<Map<String, IDCardinality>>() {
-            }.getType();
-            Map<String, IDCardinality> cardinalityMap = gson.fromJson(new FileReader(cardinalityFileUrl.getPath()),
-                    type);
-            logger.info("Finished processing files");
-            logger.info("Moving on to Markdown Output");
-            // Generate the markdown for documentation purposes
-            Table.Builder tableBuilder = new Table.Builder()
-                    .withAlignments(Table.ALIGN_LEFT, Table.ALIGN_CENTER, Table.ALIGN_LEFT, Table.ALIGN_LEFT,
-                            Table.ALIGN_LEFT);
-            tableBuilder.addRow("Class Name", "Attribute Name", "Data Type", "NCI C-Code", "Cardinality",
-                    "Preferred Term", "Definition", "Codelist Ref", "Inherited From");
-            allModelElements.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
-                // Class Row
-                tableBuilder.addRow(entry.getValue().getName(), null, null, entry.getValue().getDefNciCode(),
-                        null, entry.getValue().getPreferredTerm(), entry.getValue().getDefinition(), null);
-                entry.getValue().getProperties().entrySet().forEach(propEntry -> {
-                    // Property Rows
-                    String cardinality = propEntry.getValue().getMultiplicity();
-                    if (cardinality == null || cardinality == "") {
-                        if (cardinalityMap.get(entry.getValue().getName()) != null)
-                            cardinality = cardinalityMap.get(entry.getValue().getName()).getCardinalities()
-                                    .getOrDefault(propEntry.getValue().getName(), null);
-                    }
-                    tableBuilder.addRow(null, propEntry.getValue().getName(),
-                            propEntry.getValue().printType(),
-                            propEntry.getValue().getDefNciCode(), cardinality,
-                            propEntry.getValue().getPreferredTerm(),
-                            propEntry.getValue().getDefinition(), propEntry.getValue().printCodeLists(),
-                            propEntry.getValue().getInheritedFrom());
+            var merged = enrichedModelStages(graph, new HashMap<>());
+            var cardinalities = graph.stage("load cardinalities", GeneratorApp::loadCardinalities);
+            graph.step("emit markdown", () -> writeTable(merged.get(), cardinalities.get()), merged, cardinalities);
+            graph.await();
+        }
+    }
 
-                });
+    /**
+     * Adds the stages that load the current release XMI into allModelElements and
+     * add the details from the CT Spreadsheet. With --snapshot-cache, a snapshot
+     * of the enriched model is used when neither file has changed, and nothing
+     * gets parsed at all.
+     */
+    private static StageGraph.Stage<Map<String, ModelClass>> enrichedModelStages(StageGraph graph,
+            Map<String, ModelClass> allModelElements) {
+        String snapshotKey = null;
+        if (snapshotCache != null) {
+            var snapshot = graph.stage("load snapshot", () -> {
+                String key = ModelSnapshotCache.key("current-model-ct", loaderOptions(), currentXmi(),
+                        input(CPT_FILE_NAME, currRef, GitBlobSource.CPT_PATH));
+                return snapshotCache.load(key, allModelElements) ? null : key;
             });
-            Table table = tableBuilder.build();
-            try (FileWriter out = new FileWriter("dataDictionary.MD")) {
-                out.write(table.toString());
-            } catch (Exception e) {
-                e.printStackTrace();
+            snapshotKey = snapshot.get();
+            if (snapshotKey == null) {
+                return graph.stage("use snapshot", () -> compact(allModelElements), snapshot);
             }
-            System.out.println(table);
         }
+        String storeKey = snapshotKey;
+        // Process the Main UML XMI Model first
+        var xmi = graph.stage("parse XMI", () -> loadCurrentModel(allModelElements));
+        var cpt = graph.stage("parse CT", GeneratorApp::currentCpt);
+        // Next, add more detailed information from the CT Spreadsheet
+        return graph.stage("merge CT", () -> {
+            cpt.get().populateMapwithCpt(xmi.get());
+            if (storeKey != null) {
+                snapshotCache.store(storeKey, xmi.get());
+            }
+            return compact(xmi.get());
+        }, xmi, cpt);
     }
 
-    private static void compareReleases() throws IOException, ParserConfigurationException, SAXException,
-            XPathExpressionException, OpenXML4JException, XmlException {
-        // Generate the Delta between releases
-        try (
-                var currFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(CURR_RELEASE_FOLDER_NAME + XML_FILE_NAME);
-                var prevFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(PREV_RELEASE_FOLDER_NAME + XML_FILE_NAME);) {
-            if (prevFile == null || currFile == null) {
-                if (prevFile == null) {
-                    logger.error("prevFile could not be found");
-                }
-                if (currFile == null) {
-                    logger.error("currFile could not be found");
+    /**
+     * Loads the current release XMI into allModelElements
+     */
+    private static Map<String, ModelClass> loadCurrentModel(Map<String, ModelClass> allModelElements)
+            throws IOException, ParserConfigurationException, SAXException,
+            XPathExpressionException, XMLStreamException {
+        loadModel(currentXmi(), allModelElements, "current-model");
+        if (allModelElements.isEmpty()) {
+            throw new RuntimeException("Possible Usdm XMI Parsing Error. Check file and structure");
+        }
+        return allModelElements;
+    }
+
+    /**
+     * Pull additional cardinalities from json file
+     */
+    static Map<String, IDCardinality> loadCardinalities() throws IOException {
+        Gson gson = new Gson();
+        var cardinalityFileUrl = GeneratorApp.class.getClassLoader().getResource(CARDINALITY_JSON_FILE_NAME);
+        var type = new TypeToken<Map<String, IDCardinality>>() {
+        }.getType();
+        try (Reader reader = new InputStreamReader(cardinalityFileUrl.openStream(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+
+    private static void writeTable(Map<String, ModelClass> allModelElements,
+            Map<String, IDCardinality> cardinalityMap) {
+        logger.info("Finished processing files");
+        logger.info("Moving on to Markdown Output");
+        // Generate the markdown for documentation purposes
+        MarkdownTableWriter table = new MarkdownTableWriter(Table.ALIGN_LEFT, Table.ALIGN_CENTER, Table.ALIGN_LEFT,
+                Table.ALIGN_LEFT, Table.ALIGN_LEFT);
+        try (Writer out = new BufferedWriter(new FileWriter("dataDictionary.MD"))) {
+            if (echoTable) {
+                Writer console = new OutputStreamWriter(System.out);
+                table.write(rows -> tableRows(allModelElements, cardinalityMap, rows), out, console);
+                console.write(System.lineSeparator());
+                console.flush();
+            } else {
+                table.write(rows -> tableRows(allModelElements, cardinalityMap, rows), out);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Feeds the rows of the Data Dictionary Table, header first, to rows
+     */
+    static void tableRows(Map<String, ModelClass> allModelElements,
+            Map<String, IDCardinality> cardinalityMap, Consumer<Object[]> rows) {
+        rows.accept(new Object[] { "Class Name", "Attribute Name", "Data Type", "NCI C-Code", "Cardinality",
+                "Preferred Term", "Definition", "Codelist Ref", "Inherited From" });
+        allModelElements.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            // Class Row
+            rows.accept(new Object[] { entry.getValue().getName(), null, null, entry.getValue().getDefNciCode(),
+                    null, entry.getValue().getPreferredTerm(), entry.getValue().getDefinition(), null });
+            entry.getValue().getProperties().entrySet().forEach(propEntry -> {
+                // Property Rows
+                String cardinality = propEntry.getValue().getMultiplicity();
+                if (cardinality == null || cardinality == "") {
+                    if (cardinalityMap.get(entry.getValue().getName()) != null)
+                        cardinality = cardinalityMap.get(entry.getValue().getName()).getCardinalities()
+                                .getOrDefault(propEntry.getValue().getName(), null);
                 }
-                throw new RuntimeException("Input file not found");
+                rows.accept(new Object[] { null, propEntry.getValue().getName(),
+                        propEntry.getValue().printType(),
+                        propEntry.getValue().getDefNciCode(), cardinality,
+                        propEntry.getValue().getPreferredTerm(),
+                        propEntry.getValue().getDefinition(), propEntry.getValue().printCodeLists(),
+                        propEntry.getValue().getInheritedFrom() });
+
+            });
+        });
+    }
+
+    private static void compareReleases() {
+        // Generate the Delta between releases
+        URL currFile;
+        URL prevFile;
+        try {
+            currFile = currentXmi();
+            prevFile = previousXmi();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (prevFile == null || currFile == null) {
+            if (prevFile == null) {
+                logger.error("prevFile could not be found");
             }
-            UsdmParser parserPrev = new UsdmParser(prevFile);
-            UsdmParser parserCurr = new UsdmParser(currFile);
-            Map<String, ModelClass> prevModel = new HashMap<>();
-            parserPrev.loadFromUsdmXmi(prevModel);
-            Map<String, ModelClass> currModel = new HashMap<>();
-            parserCurr.loadFromUsdmXmi(currModel);
-
-            if (prevModel.isEmpty() || currModel.isEmpty()) {
-                logger.error("Possible problem with parsing one of the XMI's namespaces");
-                throw new RuntimeException("Cannot perform XMI Comparison");
+            if (currFile == null) {
+                logger.error("currFile could not be found");
             }
+            throw new RuntimeException("Input file not found");
+        }
+        // Both releases are independent, so they are loaded concurrently
+        try (StageGraph graph = new StageGraph("compare-releases", perfReport)) {
+            var prevModel = graph.stage("parse previous XMI", () -> loadModel(prevFile, "previous-model"));
+            var currModel = graph.stage("parse current XMI", () -> loadModel(currFile, "current-model"));
+            graph.step("diff", () -> writeDelta(diffReleases(prevModel.get(), currModel.get())), prevModel,
+                    currModel);
+            graph.await();
+        }
+    }
 
-            Table.Builder diffs = Utils.printDifferences(prevModel, currModel);
-            System.out.println(diffs.build());
+    private static ModelDelta diffReleases(Map<String, ModelClass> prevModel, Map<String, ModelClass> currModel) {
+        if (prevModel.isEmpty() || currModel.isEmpty()) {
+            logger.error("Possible problem with parsing one of the XMI's namespaces");
+            throw new RuntimeException("Cannot perform XMI Comparison");
+        }
+        ModelDelta delta = ModelDiff.diff(prevModel, currModel);
+        logger.info(String.format("%1$d classes differ, %2$d are unchanged", delta.classes().size(),
+                delta.unchangedClasses()));
+        return delta;
+    }
+
+    private static void writeDelta(ModelDelta delta) throws IOException {
+        StageGraph.elements(delta.classes().size());
+        ModelDeltaWriter.writeCsv(delta, new BufferedWriter(new FileWriter("UML_DELTA.csv")));
+        Writer console = new OutputStreamWriter(System.out);
+        ModelDeltaWriter.writeMarkdown(delta, console);
+        console.write(System.lineSeparator());
+        console.flush();
+    }
+
+    /**
+     * Runs several modes at once. Every input is read once: the current XMI, CT
+     * spreadsheet and API document are shared by all the modes that need them,
+     * and each output is written by its own stage as soon as its inputs are
+     * ready, concurrently with the others. The release diff is taken before the
+     * CT details are merged into the shared model, as the previous release has
+     * none.
+     */
+    private static void runBatch(Set<String> modes) {
+        logger.info(String.format("Running %1$s in one batch", String.join(", ", modes)));
+        boolean table = modes.contains("--gen-table");
+        boolean compare = modes.contains("--compare-releases");
+        boolean structure = modes.contains("--gen-structure");
+        boolean alignment = modes.contains("--gen-alignment");
+        try (StageGraph graph = new StageGraph("batch", perfReport)) {
+            var xmi = graph.stage("parse XMI", () -> loadCurrentModel(new TreeMap<>()));
+            StageGraph.Stage<ModelDelta> delta = null;
+            if (compare) {
+                var prevModel = graph.stage("parse previous XMI", () -> {
+                    URL prevFile = previousXmi();
+                    if (prevFile == null) {
+                        logger.error("prevFile could not be found");
+                        throw new RuntimeException("Input file not found");
+                    }
+                    return loadModel(prevFile, "previous-model");
+                });
+                delta = graph.stage("diff", () -> diffReleases(prevModel.get(), xmi.get()), prevModel, xmi);
+                var diff = delta;
+                graph.step("emit delta", () -> writeDelta(diff.get()), diff);
+            }
+            if (!table && !structure && !alignment) {
+                graph.await();
+                return;
+            }
+            var cpt = graph.stage("parse CT", GeneratorApp::currentCpt);
+            var merged = delta == null
+                    ? graph.stage("merge CT", () -> mergeCpt(cpt.get(), xmi.get()), xmi, cpt)
+                    : graph.stage("merge CT", () -> mergeCpt(cpt.get(), xmi.get()), xmi, cpt, delta);
+            var api = structure || alignment ? graph.stage("parse API", GeneratorApp::loadApiSchemas) : null;
+            if (table) {
+                var cardinalities = graph.stage("load cardinalities", GeneratorApp::loadCardinalities);
+                graph.step("emit markdown", () -> writeTable(merged.get(), cardinalities.get()), merged,
+                        cardinalities);
+            }
+            if (structure) {
+                graph.step("emit YAML", () -> writeStructure(merged.get(), api.get()), merged, api);
+            }
+            if (alignment) {
+                var apiEntities = graph.stage("API entities",
+                        () -> APIParser.getEntitiesMap(api.get()), api);
+                var cptEntities = graph.stage("CT entities", () -> cpt.get().getEntitiesMap(), cpt);
+                var records = graph.stage("align",
+                        () -> AlignmentJoin.align(apiEntities.get(), merged.get(), cptEntities.get()), apiEntities,
+                        merged, cptEntities);
+                graph.step("emit CSV",
+                        () -> Utils.printListOfMaps(ColumnName.labels(), records.get(), "alignment.csv"), records);
+            }
+            graph.await();
+        }
+    }
+
+    private static Map<String, ModelClass> mergeCpt(CptParser cpt, Map<String, ModelClass> model) {
+        cpt.populateMapwithCpt(model);
+        return compact(model);
+    }
+
+    /**
+     * Finds the XMI of a release: a file, a folder holding USDM_UML.xmi, or else
+     * the same on the class path (i.e. "prevRelease/")
+     */
+    private static URL releaseFile(String release) throws IOException {
+        Path path = Path.of(release);
+        if (Files.isDirectory(path)) {
+            path = path.resolve(XML_FILE_NAME);
+        }
+        if (Files.isRegularFile(path)) {
+            return path.toUri().toURL();
+        }
+        var resource = GeneratorApp.class.getClassLoader().getResource(release);
+        if (resource != null && !release.endsWith(".xmi")) {
+            resource = GeneratorApp.class.getClassLoader()
+                    .getResource(release + (release.endsWith("/") ? "" : "/") + XML_FILE_NAME);
+        }
+        if (resource == null) {
+            logger.error(String.format("%1$s could not be found", release));
+            throw new RuntimeException("Input file not found");
+        }
+        return resource;
+    }
+
+    private static void genReleaseHistory(List<String> releases) {
+        // Track every class and attribute over an ordered list of releases
+        if (releases.size() < 2 || Set.copyOf(releases).size() != releases.size()) {
+            throw new RuntimeException(RELEASE_HISTORY_FLAG + " needs at least two distinct releases, oldest first");
+        }
+        List<URL> files = new ArrayList<>();
+        try {
+            for (String release : releases) {
+                files.add(gitSource == null ? releaseFile(release) : gitSource.url(release, GitBlobSource.XMI_PATH));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // Each release is loaded and fingerprinted once, concurrently, and shared
+        // by the diffs with its neighbours
+        try (StageGraph graph = new StageGraph("release-history", perfReport)) {
+            List<StageGraph.Stage<Map<String, ModelClass>>> models = new ArrayList<>();
+            List<StageGraph.Stage<ModelFingerprint>> fingerprints = new ArrayList<>();
+            for (int i = 0; i < releases.size(); i++) {
+                URL file = files.get(i);
+                String kind = ModelSnapshotCache.kind("release-model", releases.get(i));
+                var model = graph.stage("parse " + releases.get(i), () -> loadModel(file, kind));
+                models.add(model);
+                fingerprints.add(graph.stage("fingerprint " + releases.get(i),
+                        () -> ModelFingerprint.of(model.get()), model));
+            }
+            List<StageGraph.Stage<ModelDelta>> deltas = new ArrayList<>();
+            for (int i = 1; i < releases.size(); i++) {
+                var prevModel = models.get(i - 1);
+                var prevFingerprint = fingerprints.get(i - 1);
+                var currModel = models.get(i);
+                var currFingerprint = fingerprints.get(i);
+                deltas.add(graph.stage(String.format("diff %1$s %2$s", releases.get(i - 1), releases.get(i)),
+                        () -> ModelDiff.diff(prevModel.get(), prevFingerprint.get(), currModel.get(),
+                                currFingerprint.get()),
+                        prevModel, prevFingerprint, currModel, currFingerprint));
+            }
+            graph.step("emit CSV", () -> {
+                ReleaseHistory history = new ReleaseHistory(releases, models.get(0).get(),
+                        deltas.stream().map(StageGraph.Stage::get).toList());
+                Utils.printListOfMaps(history.labels(), history.records(), "releaseHistory.csv");
+            }, deltas.toArray(new StageGraph.Stage<?>[0]));
+            graph.await();
         }
     }
 
@@ -200,61 +667,13 @@ public class GeneratorApp {
         attribute.put(name, value);
     }
 
-    private static Set<String> toIds(String name) {
-        Set<String> synonyms = new LinkedHashSet<>();
-        synonyms.add(name);
-        synonyms.add(name + "Id");
-        synonyms.add(name + "Ids");
-        if (name.endsWith("s")) {
-            synonyms.add(name.substring(0, name.length() - "s".length()) + "Ids");
-        }
-        if (name.endsWith("ies")) {
-            synonyms.add(name.substring(0, name.length() - "ies".length()) + "yIds");
-        }
-        if (name.contains("children")){
-            synonyms.add(name.replace("children", "child") + "Ids");
-        }
-        if (name.contains("criteria")){
-            synonyms.add(name.replace("criteria", "criterion") + "Ids");
-        }
-        return synonyms;
-    }
-
-    private static Set<String> fromIds(String name) {
-        Set<String> synonyms = new LinkedHashSet<>();
-        synonyms.add(name);
-        if (name.endsWith("Id")) {
-            synonyms.add(name.substring(0, name.length() - "Id".length()));
-        }
-        if (name.endsWith("yIds")) {
-            synonyms.add(name.substring(0, name.length() - "yIds".length()) + "ies");
-        }
-        if (name.endsWith("Ids")) {
-            synonyms.add(name.substring(0, name.length() - "Ids".length()) + "s");
-            synonyms.add(name.substring(0, name.length() - "Ids".length()));
-        }
-        if (name.contains("child") && name.endsWith("Ids")){
-            synonyms.add(name.substring(0, name.length() - "Ids".length()).replace("child", "children"));
-        }
-        if (name.contains("criterion") && name.endsWith("Ids")){
-            synonyms.add(name.substring(0, name.length() - "Ids".length()).replace("criterion", "criteria"));
-        }
-        return synonyms;
-    }
-
     private static Relationship getRelatedAttribute(Map.Entry<String, ModelClassProperty> propEntry,
-            Map<String, Map<String, ?>> classFromAPI) {
+            Map<String, ApiSchemaProperty> classFromAPI) {
         if (classFromAPI != null) {
-            Set<String> synonyms = toIds(propEntry.getValue().getName());
-            for (String synonym : synonyms) {
-                try {
-                    JsonPath.read(classFromAPI,
-                            synonym);
-                    classFromAPI.remove(synonym);
-                    return new Relationship(propEntry.getValue().getName().equals(synonym) ? Relationship.RelType.Value
-                            : Relationship.RelType.Ref, synonym);
-                } catch (PathNotFoundException e) {
-                }
+            String synonym = AttributeSynonyms.matchAndRemove(propEntry.getValue().getName(), classFromAPI);
+            if (synonym != null) {
+                return new Relationship(propEntry.getValue().getName().equals(synonym) ? Relationship.RelType.Value
+                        : Relationship.RelType.Ref, synonym);
             }
         }
         return null;
@@ -262,135 +681,162 @@ public class GeneratorApp {
 
     static final String UNKNOWN = "UNKNOWN";
 
-    private static void buildNonModeledAttributes(Map<String, Map<String, ?>> classFromAPI, Object jsonDocument,
-            Map<String, Object> attributes) {
+    private static void buildNonModeledAttributes(Map<String, ApiSchemaProperty> classFromAPI,
+            SchemaRegistry registry, Map<String, Object> attributes) {
         if (classFromAPI != null) {
-            for (Map.Entry<String, Map<String, ?>> propEntry : classFromAPI.entrySet()) {
+            for (Map.Entry<String, ApiSchemaProperty> propEntry : classFromAPI.entrySet()) {
                 Map<String, Object> attribute = new LinkedHashMap<>();
                 attributes.put(propEntry.getKey(), attribute);
-                if (propEntry.getValue().containsKey("type") && propEntry.getValue().get("type").equals("array")) {
-                    String ref = ((Map<String, String>) propEntry.getValue().get("items")).get("$ref");
-                    if (ref == null) {
-                        attribute.put("Type", new Map[] { Map.of("$ref", UNKNOWN) });
+                if ("array".equals(propEntry.getValue().getType())) {
+                    String ref = propEntry.getValue().getItems().getRef();
+                    ApiSchema def = ref == null ? null : registry.resolve(ref);
+                    if (def == null) {
+                        attribute.put("Type", List.of(Map.of("$ref", UNKNOWN)));
                     } else {
-                        ref = ref.replaceFirst("\\#", "\\$");
-                        ref = ref.replaceAll("\\/", "\\.");
-                        try {
-                            Map<String, ?> def = JsonPath.read(jsonDocument, ref);
-                            attribute.put("Type", new Map[] { Map.of("$ref", "#/" + def.get("title")) });
-                        } catch (PathNotFoundException e) {
-                            attribute.put("Type", new Map[] { Map.of("$ref", UNKNOWN) });
-                        }
+                        attribute.put("Type", List.of(Map.of("$ref", "#/" + def.getTitle())));
                     }
                     attribute.put("Cardinality", "0..*");
-                } else if (propEntry.getValue().containsKey("type")
-                        && propEntry.getValue().get("type").equals("string")) {
-                    attribute.put("Type", new Map[] { Map.of("$ref", "#/string") });
+                } else if ("string".equals(propEntry.getValue().getType())) {
+                    attribute.put("Type", List.of(Map.of("$ref", "#/string")));
                     attribute.put("Cardinality", "0..1");
-                } else if (propEntry.getValue().containsKey("const")) {
-                    Object propertyJSONValue = propEntry.getValue().get("const");
+                } else if (propEntry.getValue().isConstant()) {
+                    Object propertyJSONValue = propEntry.getValue().getConstValue();
                     if (propertyJSONValue instanceof String) {
-                        attribute.put("Type", new Map[] { Map.of("$ref", "#/string") });
+                        attribute.put("Type", List.of(Map.of("$ref", "#/string")));
                         attribute.put("Cardinality", "0..1");
                     }
                 } else {
-                    attribute.put("Type", new Map[] { Map.of("$ref", UNKNOWN) });
+                    attribute.put("Type", List.of(Map.of("$ref", UNKNOWN)));
                 }
                 attribute.put("Relationship Type", "Value");
             }
         }
     }
 
-    private static void genStructure() throws IOException, ParserConfigurationException, SAXException,
-            XPathExpressionException, OpenXML4JException, XmlException {
+    /**
+     * Writes a synthetic release of --scale times the size of the bundled one,
+     * drawn with --seed, for the other modes to run on with folder first on the
+     * class path
+     */
+    private static void genSynthetic(Path folder) {
+        try {
+            new SyntheticRelease(syntheticScale, syntheticSeed).write(folder);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void genStructure() {
         // Generate the Markdown for the Data Dictionary Table
+        try (StageGraph graph = new StageGraph("gen-structure", perfReport)) {
+            // allModelElements contains a deserialized representation of the UML
+            var merged = enrichedModelStages(graph, new TreeMap<>());
+            var api = graph.stage("parse API", GeneratorApp::loadApiSchemas);
+            graph.step("emit YAML", () -> writeStructure(merged.get(), api.get()), merged, api);
+            graph.await();
+        }
+    }
 
+    private static SchemaRegistry loadApiSchemas() throws IOException {
         try (
-                var currUSDMFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(CURR_RELEASE_FOLDER_NAME + XML_FILE_NAME);
-                var currAPIFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(API_FILE_NAME);) {
-            // Process the Main UML XMI Model first
-            UsdmParser usdmParser = new UsdmParser(currUSDMFile);
-            Object jsonDocument = Configuration.defaultConfiguration().jsonProvider()
-                    .parse(new String(currAPIFile.readAllBytes()));
-            // allModelElements contains a deserialized representation of the UML
-            Map<String, ModelClass> allModelElements = new TreeMap<>();
-            usdmParser.loadFromUsdmXmi(allModelElements);
-            if (allModelElements.isEmpty()) {
-                throw new RuntimeException("Possible Usdm XMI Parsing Error. Check file and structure");
-            }
-            // Next, add more detailed information from the CT Spreadsheet
-            CptParser cptParser = new CptParser(CPT_FILE_NAME);
-            cptParser.populateMapwithCpt(allModelElements);
-            Map<String, Map<String, Object>> classes = new TreeMap<>();
-            for (Map.Entry<String, ModelClass> entry : allModelElements.entrySet()) {
-                Map<String, Object> attributes = new LinkedHashMap<>();
-                Map<String, Object> clazz = new LinkedHashMap<>();
-                Map<String, Map<String, ?>> classFromAPI = null;
-                List<String> classPaths = List.of("$.components.schemas." + entry.getValue().getName() + ".properties",
-                        "$.components.schemas." + entry.getValue().getName() + "-Output.properties");
-                for (String classPath : classPaths) {
-                    try {
-                        classFromAPI = JsonPath.read(jsonDocument,
-                                classPath);
-                        break;
-                    } catch (PathNotFoundException e) {
-                    }
-                }
-                putIfNonEmpty(clazz, "NCI C-Code", entry.getValue().getDefNciCode());
-                putIfNonEmpty(clazz, "Preferred Term", entry.getValue().getPreferredTerm());
-                putIfNonEmpty(clazz, "Definition", entry.getValue().getDefinition());
-                putIfNonEmpty(clazz, "Super Classes",
-                        entry.getValue().getSuperClasses().stream().map((value) -> Map.of("$ref", "#/" + value))
-                                .collect(Collectors.toList()));
-                putIfNonEmpty(clazz, "Sub Classes",
-                        entry.getValue().getSubClasses().stream().map((value) -> Map.of("$ref", "#/" + value))
-                                .collect(Collectors.toList()));
-                clazz.put("Modifier", classFromAPI == null ? "Abstract" : "Concrete");
-                clazz.put("Attributes", attributes);
-                classes.put(entry.getValue().getName(), clazz);
-                for (Map.Entry<String, ModelClassProperty> propEntry : entry.getValue().getProperties().entrySet()) {
-                    Map<String, Object> attribute = new LinkedHashMap<>();
-                    putIfNonEmpty(attribute, "Type",
-                            propEntry.getValue().getTypes().stream().map((value) -> Map.of("$ref", "#/" + value))
-                                    .collect(Collectors.toList()));
-                    putIfNonEmpty(attribute, "NCI C-Code", propEntry.getValue().getDefNciCode());
-                    putIfNonEmpty(attribute, "Cardinality", propEntry.getValue().getMultiplicity());
-                    putIfNonEmpty(attribute, "Preferred Term", propEntry.getValue().getPreferredTerm());
-                    putIfNonEmpty(attribute, "Definition", propEntry.getValue().getDefinition());
-                    putIfNonEmpty(attribute, "Codelist Ref", propEntry.getValue().printCodeLists());
-                    Relationship attributeFromAPI = getRelatedAttribute(propEntry, classFromAPI);
-                    putIfNonEmpty(attribute, "Relationship Type", classFromAPI,
-                            attributeFromAPI == null ? UNKNOWN : attributeFromAPI.type.toString());
-                    attribute.put("Model Name", propEntry.getValue().getName());
-                    putIfNonEmpty(attribute, "Inherited From", propEntry.getValue().getInheritedFrom(),
-                            Map.of("$ref", "#/" + propEntry.getValue().getInheritedFrom()));
-                    attributes.put(
-                            attributeFromAPI == null
-                                    ? propEntry.getValue().getName() + (classFromAPI == null ? "" : "*")
-                                    : attributeFromAPI.name,
-                            attribute);
+                var currAPIFile = input(API_FILE_NAME, currRef, GitBlobSource.API_PATH).openStream();) {
+            return SchemaRegistry.read(currAPIFile);
+        }
+    }
+
+    /**
+     * Writes dataStructure.yml one class at a time, in class name order. With a
+     * parallelism above 1 (--parallelism, all processors by default) classes are
+     * built concurrently, at most twice as many as threads ahead of the one being
+     * written, and the file is the same as with a single thread.
+     */
+    private static void writeStructure(Map<String, ModelClass> allModelElements, SchemaRegistry registry)
+            throws IOException {
+        logger.info("Finished processing files");
+        logger.info("Moving on to YAML Output");
+        // Generate the yaml for documentation purposes
+        DumperOptions dumperOptions = new DumperOptions();
+        dumperOptions.setDefaultFlowStyle(FlowStyle.BLOCK);
+        List<ModelClass> sorted = allModelElements.values().stream()
+                .sorted(Comparator.comparing(ModelClass::getName)).collect(Collectors.toList());
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try (YamlEventWriter yaml = new YamlEventWriter(new BufferedWriter(new FileWriter("dataStructure.yml")),
+                dumperOptions)) {
+            yaml.startMapping();
+            // Classes are built by the pool a window ahead of the one being
+            // written, and written in name order as they complete
+            Deque<Future<Map<String, Object>>> pending = new ArrayDeque<>();
+            int submitted = 0;
+            for (ModelClass modelClass : sorted) {
+                while (pool != null && submitted < sorted.size() && pending.size() < parallelism * 2) {
+                    ModelClass next = sorted.get(submitted++);
+                    pending.add(pool.submit(() -> buildStructure(next, registry)));
                 }
-                buildNonModeledAttributes(classFromAPI, jsonDocument, attributes);
+                yaml.write(modelClass.getName());
+                yaml.write(pool == null ? buildStructure(modelClass, registry) : built(pending.remove()));
+            }
+            yaml.endMapping();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
             }
-            logger.info("Finished processing files");
-            logger.info("Moving on to YAML Output");
-            // Generate the yaml for documentation purposes
-            DumperOptions dumperOptions = new DumperOptions();
-            dumperOptions.setDefaultFlowStyle(FlowStyle.BLOCK);
-            Yaml yaml = new Yaml(dumperOptions);
-            FileWriter writer = new FileWriter("dataStructure.yml");
-            yaml.dump(classes, writer);
         }
     }
 
-    private static Set<String> uniqueKeys(Map<String, ?>... maps) {
-        Set<String> uniqueKeys = new TreeSet<>();
-        for (Map<String, ?> map : maps) {
-            uniqueKeys.addAll(map.keySet());
+    private static Map<String, Object> built(Future<Map<String, Object>> structure) {
+        try {
+            return structure.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
-        return uniqueKeys;
+    }
+
+    static Map<String, Object> buildStructure(ModelClass modelClass, SchemaRegistry registry) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        Map<String, Object> clazz = new LinkedHashMap<>();
+        // Matched properties are removed from classFromAPI, so it is a copy
+        Map<String, ApiSchemaProperty> classFromAPI = registry.getClassProperties(modelClass.getName());
+        if (classFromAPI != null) {
+            classFromAPI = new LinkedHashMap<>(classFromAPI);
+        }
+        putIfNonEmpty(clazz, "NCI C-Code", modelClass.getDefNciCode());
+        putIfNonEmpty(clazz, "Preferred Term", modelClass.getPreferredTerm());
+        putIfNonEmpty(clazz, "Definition", modelClass.getDefinition());
+        putIfNonEmpty(clazz, "Super Classes",
+                modelClass.getSuperClasses().stream().map((value) -> Map.of("$ref", "#/" + value))
+                        .collect(Collectors.toList()));
+        putIfNonEmpty(clazz, "Sub Classes",
+                modelClass.getSubClasses().stream().map((value) -> Map.of("$ref", "#/" + value))
+                        .collect(Collectors.toList()));
+        clazz.put("Modifier", classFromAPI == null ? "Abstract" : "Concrete");
+        clazz.put("Attributes", attributes);
+        for (Map.Entry<String, ModelClassProperty> propEntry : modelClass.getProperties().entrySet()) {
+            Map<String, Object> attribute = new LinkedHashMap<>();
+            putIfNonEmpty(attribute, "Type",
+                    propEntry.getValue().getTypes().stream().map((value) -> Map.of("$ref", "#/" + value))
+                            .collect(Collectors.toList()));
+            putIfNonEmpty(attribute, "NCI C-Code", propEntry.getValue().getDefNciCode());
+            putIfNonEmpty(attribute, "Cardinality", propEntry.getValue().getMultiplicity());
+            putIfNonEmpty(attribute, "Preferred Term", propEntry.getValue().getPreferredTerm());
+            putIfNonEmpty(attribute, "Definition", propEntry.getValue().getDefinition());
+            putIfNonEmpty(attribute, "Codelist Ref", propEntry.getValue().printCodeLists());
+            Relationship attributeFromAPI = getRelatedAttribute(propEntry, classFromAPI);
+            putIfNonEmpty(attribute, "Relationship Type", classFromAPI,
+                    attributeFromAPI == null ? UNKNOWN : attributeFromAPI.type.toString());
+            attribute.put("Model Name", propEntry.getValue().getName());
+            putIfNonEmpty(attribute, "Inherited From", propEntry.getValue().getInheritedFrom(),
+                    Map.of("$ref", "#/" + propEntry.getValue().getInheritedFrom()));
+            attributes.put(
+                    attributeFromAPI == null
+                            ? propEntry.getValue().getName() + (classFromAPI == null ? "" : "*")
+                            : attributeFromAPI.name,
+                    attribute);
+        }
+        buildNonModeledAttributes(classFromAPI, registry, attributes);
+        return clazz;
     }
 
     public enum ColumnName {
@@ -416,88 +862,17 @@ public class GeneratorApp {
         }
     }
 
-    private static void genAlignment() throws IOException, ParserConfigurationException, SAXException,
-            XPathExpressionException, OpenXML4JException, XmlException {
+    private static void genAlignment() {
         // Compare Classes and Attributes from API, CT, and USDM
-        try (
-                var currUSDMFile = GeneratorApp.class.getClassLoader()
-                        .getResourceAsStream(CURR_RELEASE_FOLDER_NAME + XML_FILE_NAME);) {
-            APIParser apiParser = new APIParser(API_FILE_NAME);
-            Map<String, ModelClass> apiElements = apiParser.getEntitiesMap();
-            UsdmParser usdmParser = new UsdmParser(currUSDMFile);
-            Map<String, ModelClass> modelElements = new TreeMap<>();
-            usdmParser.loadFromUsdmXmi(modelElements);
-            if (modelElements.isEmpty()) {
-                throw new RuntimeException("Possible Usdm XMI Parsing Error. Check file and structure");
-            }
-            CptParser cptParser = new CptParser(CPT_FILE_NAME);
-            Map<String, ModelClass> cptElements = cptParser.getEntitiesMap();
-            List<Map<String, Object>> records = new ArrayList<>();
-            for (String uniqueClass : uniqueKeys(apiElements, modelElements, cptElements)) {
-                if (!apiElements.containsKey(uniqueClass) || !modelElements.containsKey(uniqueClass)
-                        || !cptElements.containsKey(uniqueClass)) {
-                    Map<String, Object> record = new LinkedHashMap<>();
-                    record.put(ColumnName.CLASS.label, uniqueClass);
-                    putIfNonEmpty(record, ColumnName.API.label,
-                            apiElements.containsKey(uniqueClass) ? uniqueClass : null);
-                    putIfNonEmpty(record, ColumnName.CT.label,
-                            cptElements.containsKey(uniqueClass) ? uniqueClass : null);
-                    putIfNonEmpty(record, ColumnName.UML_DD.label,
-                            modelElements.containsKey(uniqueClass) ? uniqueClass : null);
-                    records.add(record);
-                }
-                Map<String, Map<String, Object>> allProperties = new TreeMap<>();
-                Map<String, ModelClassProperty> apiProperties = apiElements.containsKey(uniqueClass)
-                        ? apiElements.get(uniqueClass).getProperties()
-                        : new HashMap<>();
-                Map<String, ModelClassProperty> modelProperties = modelElements.containsKey(uniqueClass)
-                        ? modelElements.get(uniqueClass).getProperties()
-                        : new HashMap<>();
-                Map<String, ModelClassProperty> cptProperties = cptElements.containsKey(uniqueClass)
-                        ? cptElements.get(uniqueClass).getProperties()
-                        : new HashMap<>();
-                for (String uniqueAttribute : modelProperties.keySet()) {
-                    Map<String, Object> record = new HashMap<>();
-                    record.put(ColumnName.CLASS.label, uniqueClass);
-                    record.put(ColumnName.ATTRIBUTE.label, uniqueAttribute);
-                    record.put(ColumnName.UML_DD.label, uniqueAttribute);
-                    allProperties.put(uniqueAttribute, record);
-                }
-                for (String uniqueAttribute : cptProperties.keySet()) {
-                    Map<String, Object> record = new HashMap<>();
-                    record.put(ColumnName.CLASS.label, uniqueClass);
-                    record.put(ColumnName.ATTRIBUTE.label, uniqueAttribute);
-                    record = allProperties.getOrDefault(uniqueAttribute, record);
-                    record.put(ColumnName.CT.label, uniqueAttribute);
-                    allProperties.putIfAbsent(uniqueAttribute, record);
-                }
-                for (String uniqueAttribute : apiProperties.keySet()) {
-                    Map<String, Object> record = new HashMap<>();
-                    record.put(ColumnName.CLASS.label, uniqueClass);
-                    record.put(ColumnName.ATTRIBUTE.label, uniqueAttribute);
-                    String foundKey = uniqueAttribute;
-                    for (String potential : fromIds(uniqueAttribute)) {
-                        if (allProperties.containsKey(potential)) {
-                            foundKey = potential;
-                            break;
-                        }
-                    }
-                    record = allProperties.getOrDefault(foundKey, record);
-                    record.put(ColumnName.API.label, uniqueAttribute);
-                    allProperties.putIfAbsent(foundKey, record);
-                }
-                for (Map.Entry<String, Map<String, Object>> record : allProperties.entrySet()) {
-                    if (!record.getValue().containsKey(ColumnName.API.label)
-                            || (!record.getValue().containsKey(ColumnName.UML_DD.label)
-                                    && !Set.of("instanceType").contains(record.getKey()))
-                            || (!record.getValue().containsKey(ColumnName.CT.label)
-                                    && !Set.of("id", "instanceType").contains(record.getKey()))) {
-                        records.add(record.getValue());
-                    }
-                }
-
-            }
-            Utils.printListOfMaps(ColumnName.labels(), records, "alignment.csv");
+        try (StageGraph graph = new StageGraph("gen-alignment", perfReport)) {
+            var api = graph.stage("parse API", () -> currentApi().getEntitiesMap());
+            var xmi = graph.stage("parse XMI", () -> compact(loadCurrentModel(new TreeMap<>())));
+            var cpt = graph.stage("parse CT", () -> currentCpt().getEntitiesMap());
+            var records = graph.stage("align", () -> AlignmentJoin.align(api.get(), xmi.get(), cpt.get()), api,
+                    xmi, cpt);
+            graph.step("emit CSV", () -> Utils.printListOfMaps(ColumnName.labels(), records.get(), "alignment.csv"),
+                    records);
+            graph.await();
         }
     }
 }
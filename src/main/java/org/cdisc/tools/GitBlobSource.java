@@ -0,0 +1,110 @@
+package org.cdisc.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the deliverables of a release (UML XMI, CT spreadsheet, API document)
+ * straight out of a local git repository (i.e. a DDF-RA clone) at any ref,
+ * without checking anything out, so two revisions can be compared without
+ * pullXmis.sh and a rebuild.
+ * Blobs are streamed by git into a cache folder under their object id. A blob
+ * that is already there is not read again, whatever ref it was asked through,
+ * and since the cached files never change they can be memory mapped and used as
+ * snapshot cache keys like any other input.
+ */
+public class GitBlobSource {
+
+    public static final String XMI_PATH = "Deliverables/UML/USDM_UML.xmi";
+    public static final String CPT_PATH = "Deliverables/CT/USDM_CT.xlsx";
+    public static final String API_PATH = "Deliverables/API/USDM_API.json";
+
+    private static final Logger logger = LoggerFactory.getLogger(GitBlobSource.class);
+
+    private final Path repository;
+    private final Path cacheFolder;
+
+    /**
+     * @param repository  - Folder of the local git repository
+     * @param cacheFolder - Where blobs are kept, it is created when needed
+     */
+    public GitBlobSource(Path repository, Path cacheFolder) {
+        this.repository = repository;
+        this.cacheFolder = cacheFolder;
+    }
+
+    /**
+     * @return the object id of the blob at path in ref
+     */
+    public String objectId(String ref, String path) throws IOException {
+        return git(null, "rev-parse", "--verify", "--quiet", ref + ":" + path).trim();
+    }
+
+    /**
+     * @return a file holding the content of path at ref
+     */
+    public Path fetch(String ref, String path) throws IOException {
+        String objectId = objectId(ref, path);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        Path blob = cacheFolder.resolve(objectId + name.substring(Math.max(0, name.lastIndexOf('.'))));
+        if (Files.exists(blob)) {
+            logger.debug(String.format("%1$s:%2$s is cached as %3$s", ref, path, blob));
+            return blob;
+        }
+        Files.createDirectories(cacheFolder);
+        Path temp = Files.createTempFile(cacheFolder, objectId, ".tmp");
+        try {
+            git(temp, "cat-file", "blob", objectId);
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info(String.format("Read %1$s:%2$s from %3$s", ref, path, repository));
+        return blob;
+    }
+
+    public URL url(String ref, String path) throws IOException {
+        return fetch(ref, path).toUri().toURL();
+    }
+
+    /**
+     * Runs git in the repository
+     *
+     * @param output - File receiving the standard output, or null to return it
+     */
+    private String git(Path output, String... arguments) throws IOException {
+        List<String> command = new ArrayList<>(List.of("git", "-C", repository.toString()));
+        command.addAll(List.of(arguments));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (output != null) {
+            builder.redirectOutput(output.toFile());
+        }
+        Process process = builder.start();
+        String result;
+        String errors;
+        try (InputStream stdout = process.getInputStream(); InputStream stderr = process.getErrorStream()) {
+            result = new String(stdout.readAllBytes(), StandardCharsets.UTF_8);
+            errors = new String(stderr.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException(String.format("%1$s failed: %2$s", String.join(" ", command),
+                        errors.isBlank() ? "exit code " + process.exitValue() : errors.trim()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return result;
+    }
+}
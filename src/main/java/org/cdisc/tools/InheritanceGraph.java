@@ -0,0 +1,118 @@
+package org.cdisc.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Generalization graph of the classes of an XMI, shared by UsdmParser and
+ * UsdmStaxParser to assemble the ModelClass instances once the XMI has been
+ * indexed.
+ * The attributes and links a class inherits are resolved once per class, its
+ * parents before it (depth first, so in topological order), and memoized: a
+ * subclass reuses the flattened members of its parents instead of looking them
+ * up again, whatever the depth of the hierarchy. Each class still gets its own
+ * flattened list, so the cost grows with the total number of members, the
+ * inherited ones included, rather than with the number of classes. Members an
+ * ancestor reaches through several parents (i.e. a diamond) are kept once.
+ */
+public class InheritanceGraph {
+
+    private static final Logger logger = LoggerFactory.getLogger(InheritanceGraph.class);
+
+    /**
+     * An attribute (ownedAttribute) or link (connector) of a class
+     *
+     * @param link           - Whether this is a link, whose type is added to an
+     *                       existing property of the same name
+     * @param declaringClass - Name of the class that declares it
+     */
+    public record Member(boolean link, String name, String type, String multiplicity, String declaringClass) {
+    }
+
+    // xmi:id -> class name, "" when unknown
+    private final Function<String, String> names;
+    // class name -> xmi:ids of its direct generalizations, in document order
+    private final Function<String, List<String>> generalizations;
+    // xmi:id -> attributes then links declared by that class
+    private final Function<String, List<Member>> ownMembers;
+    // xmi:id -> own and inherited members, parents first
+    private final Map<String, List<Member>> resolved = new HashMap<>();
+    private final Set<String> resolving = new HashSet<>();
+
+    public InheritanceGraph(Function<String, String> names, Function<String, List<String>> generalizations,
+            Function<String, List<Member>> ownMembers) {
+        this.names = names;
+        this.generalizations = generalizations;
+        this.ownMembers = ownMembers;
+    }
+
+    /**
+     * @return the members of a class: those of each of its generalizations, in
+     *         order and without duplicates, followed by its own
+     */
+    public List<Member> members(String classxmlId) {
+        List<Member> members = resolved.get(classxmlId);
+        if (members != null) {
+            return members;
+        }
+        if (!resolving.add(classxmlId)) {
+            logger.warn(String.format("Ignoring circular generalization of %1$s", names.apply(classxmlId)));
+            return List.of();
+        }
+        Set<Member> inherited = new LinkedHashSet<>();
+        for (String general : generalizations.apply(names.apply(classxmlId))) {
+            inherited.addAll(members(general));
+        }
+        members = new ArrayList<>(inherited);
+        members.addAll(ownMembers.apply(classxmlId));
+        resolving.remove(classxmlId);
+        resolved.put(classxmlId, members);
+        return members;
+    }
+
+    /**
+     * Adds a ModelClass to elements for each class, in order, with its flattened
+     * properties and direct super classes, then links every super class to its
+     * sub classes
+     *
+     * @param classes - <xmi:id, name> of the classes, in document order
+     */
+    public void populate(Map<String, ModelClass> elements, List<String[]> classes) {
+        for (String[] currentItem : classes) {
+            String classxmlId = currentItem[0];
+            String className = currentItem[1];
+            Map<String, ModelClassProperty> properties = new LinkedHashMap<>();
+            ModelClass modelClass = new ModelClass(className, properties, null);
+            elements.put(className, modelClass);
+            for (String general : generalizations.apply(className)) {
+                modelClass.getSuperClasses().add(names.apply(general));
+            }
+            for (Member member : members(classxmlId)) {
+                ModelClassProperty property = properties.get(member.name());
+                if (property == null) {
+                    properties.put(member.name(), new ModelClassProperty(member.name(), member.type(), null, null,
+                            className.equals(member.declaringClass()) ? null : member.declaringClass(),
+                            member.multiplicity()));
+                } else if (member.link()) {
+                    property.addType(member.type());
+                }
+            }
+        }
+        for (Map.Entry<String, ModelClass> entry : elements.entrySet()) {
+            for (String superClass : entry.getValue().getSuperClasses()) {
+                elements.get(superClass).getSubClasses().add(entry.getKey());
+            }
+        }
+        logger.debug(String.format("Resolved the members of %1$d classes", resolved.size()));
+    }
+}
@@ -0,0 +1,149 @@
+package org.cdisc.tools;
+
+import net.steppschuh.markdowngenerator.table.Table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams a Markdown table laid out exactly like markdowngenerator's Table.
+ * The rows are produced twice by the caller: a first pass only measures the
+ * column widths, and a second one renders every row into a reusable buffer
+ * that is written to the outputs before the next row is produced. Memory and
+ * rendering cost are those of one row, instead of the whole table being held
+ * in a Table.Builder and serialized into a single String.
+ * The first row is the header, and it decides how many columns there are.
+ */
+public class MarkdownTableWriter {
+
+    private static final int MINIMUM_COLUMN_WIDTH = 3;
+    private static final String SEPARATOR = "|";
+    private static final String WHITESPACE = " ";
+    private static final String TRIMMING_INDICATOR = "~";
+
+    private final List<Integer> alignments;
+    private int[] widths;
+
+    /**
+     * @param alignments - Table.ALIGN_* per column, the last one applies to the
+     *                   remaining columns
+     */
+    public MarkdownTableWriter(Integer... alignments) {
+        this.alignments = Arrays.asList(alignments);
+    }
+
+    /**
+     * Writes the table to every output, without closing them
+     *
+     * @param rows    - Feeds every row, header first, to the given consumer. It is
+     *                called twice and must produce the same rows both times
+     * @param outputs - Where the table goes, i.e. a file and the console
+     */
+    public void write(Consumer<Consumer<Object[]>> rows, Writer... outputs) throws IOException {
+        widths = null;
+        rows.accept(this::measure);
+        if (widths == null) {
+            return;
+        }
+        String headerSeparator = headerSeparator();
+        StringBuilder buffer = new StringBuilder();
+        int[] count = { 0 };
+        try {
+            rows.accept(row -> {
+                buffer.setLength(0);
+                if (count[0] == 1) {
+                    buffer.append(System.lineSeparator()).append(headerSeparator).append(System.lineSeparator());
+                } else if (count[0] > 1) {
+                    buffer.append(System.lineSeparator());
+                }
+                render(row, buffer);
+                count[0]++;
+                flush(buffer, outputs);
+            });
+            if (count[0] == 1) {
+                // A lone header is still followed by its separator
+                buffer.setLength(0);
+                buffer.append(headerSeparator).append(System.lineSeparator());
+                flush(buffer, outputs);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void measure(Object[] row) {
+        if (widths == null) {
+            widths = new int[row.length];
+            Arrays.fill(widths, MINIMUM_COLUMN_WIDTH);
+        }
+        for (int column = 0; column < Math.min(row.length, widths.length); column++) {
+            if (row[column] != null) {
+                widths[column] = Math.max(widths[column], row[column].toString().length());
+            }
+        }
+    }
+
+    private void render(Object[] row, StringBuilder buffer) {
+        for (int column = 0; column < widths.length; column++) {
+            buffer.append(SEPARATOR);
+            String value = "";
+            if (column < row.length && row[column] != null) {
+                value = row[column].toString();
+            }
+            if (value.equals(TRIMMING_INDICATOR)) {
+                buffer.append(WHITESPACE);
+                pad(buffer, TRIMMING_INDICATOR, widths[column]);
+                buffer.append(WHITESPACE);
+            } else {
+                int padding = widths[column] - value.length();
+                int alignment = alignment(column);
+                int left = alignment == Table.ALIGN_RIGHT ? padding : alignment == Table.ALIGN_CENTER ? padding / 2 : 0;
+                pad(buffer, WHITESPACE, left);
+                buffer.append(WHITESPACE).append(value).append(WHITESPACE);
+                pad(buffer, WHITESPACE, padding - left);
+            }
+            if (column == row.length - 1) {
+                buffer.append(SEPARATOR);
+            }
+        }
+    }
+
+    private String headerSeparator() {
+        StringBuilder separator = new StringBuilder();
+        for (int column = 0; column < widths.length; column++) {
+            separator.append(SEPARATOR);
+            int alignment = alignment(column);
+            separator.append(alignment == Table.ALIGN_CENTER ? ":" : WHITESPACE);
+            pad(separator, "-", widths[column]);
+            separator.append(alignment == Table.ALIGN_CENTER || alignment == Table.ALIGN_RIGHT ? ":" : WHITESPACE);
+        }
+        return separator.append(SEPARATOR).toString();
+    }
+
+    private int alignment(int column) {
+        if (alignments.isEmpty()) {
+            return Table.ALIGN_LEFT;
+        }
+        return alignments.get(Math.min(column, alignments.size() - 1));
+    }
+
+    private static void pad(StringBuilder buffer, String fill, int count) {
+        for (int i = 0; i < count; i++) {
+            buffer.append(fill);
+        }
+    }
+
+    private static void flush(StringBuilder buffer, Writer[] outputs) {
+        try {
+            for (Writer output : outputs) {
+                output.append(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
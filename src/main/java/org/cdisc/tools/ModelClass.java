@@ -3,7 +3,6 @@ package org.cdisc.tools;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.Map;
 import java.util.Set;
@@ -11,13 +10,10 @@ import java.util.TreeSet;
 
 public class ModelClass extends Descriptor {
     @Getter
-    @Setter
     private Map<String, ModelClassProperty> properties;
     @Getter
-    @Setter
     private Set<String> superClasses;
     @Getter
-    @Setter
     private Set<String> subClasses;
 
     public ModelClass(String name, Map<String, ModelClassProperty> properties, String description) {
@@ -27,6 +23,39 @@ public class ModelClass extends Descriptor {
         this.subClasses = new TreeSet<>();
     }
 
+    public void setProperties(Map<String, ModelClassProperty> properties) {
+        checkNotFrozen();
+        this.properties = properties;
+    }
+
+    public void setSuperClasses(Set<String> superClasses) {
+        checkNotFrozen();
+        this.superClasses = superClasses;
+    }
+
+    public void setSubClasses(Set<String> subClasses) {
+        checkNotFrozen();
+        this.subClasses = subClasses;
+    }
+
+    /**
+     * Makes this class and its properties immutable. The properties are moved
+     * to an array backed map and every string is taken from pool.
+     */
+    @Override
+    protected void freeze(StringPool pool) {
+        if (isFrozen()) {
+            return;
+        }
+        properties = FrozenMap.copyOf(properties, pool);
+        for (ModelClassProperty property : properties.values()) {
+            property.freeze(pool);
+        }
+        superClasses = FrozenSet.copyOf(superClasses, pool);
+        subClasses = FrozenSet.copyOf(subClasses, pool);
+        super.freeze(pool);
+    }
+
     @Override
     public String toString() {
         Gson gson = new GsonBuilder().registerTypeAdapter(ModelClass.class, new UsdmJsonSerializer()).create();
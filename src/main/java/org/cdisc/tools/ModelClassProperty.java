@@ -1,7 +1,6 @@
 package org.cdisc.tools;
 
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -9,16 +8,12 @@ import java.util.Set;
 
 public class ModelClassProperty extends Descriptor {
     @Getter
-    @Setter
     private Set<String> types = new LinkedHashSet<>();
     @Getter
-    @Setter
     private List<String> codeListReference;
     @Getter
-    @Setter
     private String multiplicity;
     @Getter
-    @Setter
     private String inheritedFrom;
 
     public ModelClassProperty(String name, String type, List<String> codeListReference, String description,
@@ -32,10 +27,42 @@ public class ModelClassProperty extends Descriptor {
         this.multiplicity = multiplicity;
     }
 
+    public void setTypes(Set<String> types) {
+        checkNotFrozen();
+        this.types = types;
+    }
+
+    public void setCodeListReference(List<String> codeListReference) {
+        checkNotFrozen();
+        this.codeListReference = codeListReference;
+    }
+
+    public void setMultiplicity(String multiplicity) {
+        checkNotFrozen();
+        this.multiplicity = multiplicity;
+    }
+
+    public void setInheritedFrom(String inheritedFrom) {
+        checkNotFrozen();
+        this.inheritedFrom = inheritedFrom;
+    }
+
     public void addType(String type) {
+        checkNotFrozen();
         this.types.add(type.replace("String", "string").replace("<", "\\<"));
     }
 
+    @Override
+    protected void freeze(StringPool pool) {
+        types = FrozenSet.copyOf(types, pool);
+        if (codeListReference != null) {
+            codeListReference = codeListReference.stream().map(pool::intern).toList();
+        }
+        multiplicity = pool.intern(multiplicity);
+        inheritedFrom = pool.intern(inheritedFrom);
+        super.freeze(pool);
+    }
+
     public String printCodeLists() {
         var returnVal = "";
         if (this.codeListReference != null) {
@@ -0,0 +1,71 @@
+package org.cdisc.tools;
+
+import java.util.List;
+
+/**
+ * What changed between two models, as computed by ModelDiff: classes that are
+ * new, deleted or changed, and for changed classes the fields and properties
+ * that differ. Unchanged classes are only counted.
+ * Classes are in name order and properties in property name order.
+ */
+public record ModelDelta(List<ClassDelta> classes, int unchangedClasses) {
+
+    public enum Status {
+        NEW, DELETED, CHANGED
+    }
+
+    /**
+     * A field whose value differs, values of collections are joined with ", "
+     */
+    public record FieldChange(String field, String previous, String current) {
+    }
+
+    /**
+     * @param previous - null for a NEW property
+     * @param current  - null for a DELETED property
+     * @param changes  - empty unless CHANGED
+     */
+    public record PropertyDelta(Status status, ModelClassProperty previous, ModelClassProperty current,
+            List<FieldChange> changes) {
+
+        public String name() {
+            return current == null ? previous.getName() : current.getName();
+        }
+
+        /**
+         * The property as it is now, or as it was when it has been deleted
+         */
+        public ModelClassProperty property() {
+            return current == null ? previous : current;
+        }
+    }
+
+    /**
+     * @param previous   - null for a NEW class
+     * @param current    - null for a DELETED class
+     * @param changes    - class level field changes, empty unless CHANGED
+     * @param properties - property changes, empty unless CHANGED
+     */
+    public record ClassDelta(Status status, ModelClass previous, ModelClass current, List<FieldChange> changes,
+            List<PropertyDelta> properties) {
+
+        public String name() {
+            return current == null ? previous.getName() : current.getName();
+        }
+
+        /**
+         * The class as it is now, or as it was when it has been deleted
+         */
+        public ModelClass modelClass() {
+            return current == null ? previous : current;
+        }
+    }
+
+    public List<ClassDelta> classes(Status status) {
+        return classes.stream().filter(delta -> delta.status() == status).toList();
+    }
+
+    public boolean isEmpty() {
+        return classes.isEmpty();
+    }
+}
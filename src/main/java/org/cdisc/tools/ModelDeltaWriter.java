@@ -0,0 +1,96 @@
+package org.cdisc.tools;
+
+import net.steppschuh.markdowngenerator.table.Table;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.cdisc.tools.ModelDelta.ClassDelta;
+import org.cdisc.tools.ModelDelta.FieldChange;
+import org.cdisc.tools.ModelDelta.PropertyDelta;
+import org.cdisc.tools.ModelDelta.Status;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes a ModelDelta as the UML_DELTA.csv file and as a Markdown table, both
+ * with the same rows: new and deleted classes with their properties, then new
+ * and deleted properties of the remaining classes, then the field level changes
+ * of changed classes and properties.
+ */
+public class ModelDeltaWriter {
+
+    enum outputHeaders {
+        status, class_name, property_name, data_type, field, previous, current
+    }
+
+    private ModelDeltaWriter() {
+    }
+
+    public static void writeCsv(ModelDelta delta, Writer out) throws IOException {
+        CSVFormat format = CSVFormat.RFC4180.builder().setHeader(outputHeaders.class).build();
+        try (CSVPrinter printer = new CSVPrinter(out, format)) {
+            rows(delta, row -> {
+                try {
+                    printer.printRecord(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Streams the Markdown table to every output, without closing them
+     */
+    public static void writeMarkdown(ModelDelta delta, Writer... outputs) throws IOException {
+        new MarkdownTableWriter(Table.ALIGN_LEFT).write(rows -> {
+            rows.accept(new Object[] { "Status", "Class Name", "Property Name", "Data Type", "Field", "Previous",
+                    "Current" });
+            rows(delta, rows);
+        }, outputs);
+    }
+
+    private static void rows(ModelDelta delta, Consumer<Object[]> rows) {
+        for (Status status : new Status[] { Status.NEW, Status.DELETED }) {
+            for (ClassDelta classDelta : delta.classes(status)) {
+                // Class Row
+                rows.accept(new Object[] { "Class - " + status, classDelta.name(), null, null, null, null, null });
+                for (Map.Entry<String, ModelClassProperty> propEntry : classDelta.modelClass().getProperties()
+                        .entrySet()) {
+                    // Property Rows
+                    rows.accept(new Object[] { null, null, propEntry.getValue().getName(),
+                            propEntry.getValue().printType(), null, null, null });
+                }
+            }
+        }
+        rows.accept(new Object[] { null, null, null, null, null, null, null });
+        for (Status status : new Status[] { Status.NEW, Status.DELETED }) {
+            for (ClassDelta classDelta : delta.classes(Status.CHANGED)) {
+                for (PropertyDelta property : classDelta.properties()) {
+                    if (property.status() == status) {
+                        rows.accept(new Object[] { "Property - " + status, classDelta.name(), property.name(),
+                                property.property().printType(), null, null, null });
+                    }
+                }
+            }
+        }
+        for (ClassDelta classDelta : delta.classes(Status.CHANGED)) {
+            for (FieldChange change : classDelta.changes()) {
+                rows.accept(new Object[] { "Class - CHANGED", classDelta.name(), null, null, change.field(),
+                        change.previous(), change.current() });
+            }
+            for (PropertyDelta property : classDelta.properties()) {
+                for (FieldChange change : property.changes()) {
+                    rows.accept(new Object[] { "Property - CHANGED", classDelta.name(), property.name(),
+                            property.property().printType(), change.field(), change.previous(),
+                            change.current() });
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.cdisc.tools;
+
+import org.cdisc.tools.ModelDelta.ClassDelta;
+import org.cdisc.tools.ModelDelta.FieldChange;
+import org.cdisc.tools.ModelDelta.PropertyDelta;
+import org.cdisc.tools.ModelDelta.Status;
+import org.cdisc.tools.ModelFingerprint.Field;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Structural diff of two models.
+ * Classes present in both models are first compared by ModelFingerprint hash,
+ * so an unchanged class costs one comparison whatever its size. Only classes
+ * whose hash differs are compared field by field, and within them only the
+ * properties whose hash differs.
+ */
+public class ModelDiff {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelDiff.class);
+
+    private ModelDiff() {
+    }
+
+    public static ModelDelta diff(Map<String, ModelClass> prev, Map<String, ModelClass> curr) {
+        return diff(prev, ModelFingerprint.of(prev), curr, ModelFingerprint.of(curr));
+    }
+
+    /**
+     * Same as diff(prev, curr), with fingerprints that have already been computed
+     * (i.e. when a release is compared with both its neighbours)
+     */
+    public static ModelDelta diff(Map<String, ModelClass> prev, ModelFingerprint prevFingerprint,
+            Map<String, ModelClass> curr, ModelFingerprint currFingerprint) {
+        logger.debug("ENTER - diff");
+        List<ClassDelta> classes = new ArrayList<>();
+        int unchanged = 0;
+        for (String name : names(prev.keySet(), curr.keySet())) {
+            ModelClass prevClass = prev.get(name);
+            ModelClass currClass = curr.get(name);
+            if (prevClass == null) {
+                logger.debug(String.format("New Class Name found! %1$s", name));
+                classes.add(new ClassDelta(Status.NEW, null, currClass, List.of(), List.of()));
+            } else if (currClass == null) {
+                logger.debug(String.format("Class Name Removed! %1$s", name));
+                classes.add(new ClassDelta(Status.DELETED, prevClass, null, List.of(), List.of()));
+            } else if (prevFingerprint.getClassHash(name).equals(currFingerprint.getClassHash(name))) {
+                unchanged++;
+            } else {
+                logger.debug(String.format("Class changed! %1$s", name));
+                classes.add(new ClassDelta(Status.CHANGED, prevClass, currClass,
+                        changes(ModelFingerprint.CLASS_FIELDS, prevClass, currClass),
+                        properties(name, prevClass, prevFingerprint, currClass, currFingerprint)));
+            }
+        }
+        logger.debug(String.format("LEAVE - diff, %1$d classes differ, %2$d unchanged", classes.size(),
+                unchanged));
+        return new ModelDelta(classes, unchanged);
+    }
+
+    private static List<PropertyDelta> properties(String className, ModelClass prevClass,
+            ModelFingerprint prevFingerprint, ModelClass currClass, ModelFingerprint currFingerprint) {
+        List<PropertyDelta> properties = new ArrayList<>();
+        Map<String, ModelClassProperty> prev = prevClass.getProperties();
+        Map<String, ModelClassProperty> curr = currClass.getProperties();
+        for (String name : names(prev.keySet(), curr.keySet())) {
+            ModelClassProperty prevProperty = prev.get(name);
+            ModelClassProperty currProperty = curr.get(name);
+            if (prevProperty == null) {
+                properties.add(new PropertyDelta(Status.NEW, null, currProperty, List.of()));
+            } else if (currProperty == null) {
+                properties.add(new PropertyDelta(Status.DELETED, prevProperty, null, List.of()));
+            } else if (!prevFingerprint.getPropertyHash(className, name)
+                    .equals(currFingerprint.getPropertyHash(className, name))) {
+                properties.add(new PropertyDelta(Status.CHANGED, prevProperty, currProperty,
+                        changes(ModelFingerprint.PROPERTY_FIELDS, prevProperty, currProperty)));
+            }
+        }
+        return properties;
+    }
+
+    private static <T> List<FieldChange> changes(List<Field<T>> fields, T prev, T curr) {
+        List<FieldChange> changes = new ArrayList<>();
+        for (Field<T> field : fields) {
+            String prevValue = print(field.value().apply(prev));
+            String currValue = print(field.value().apply(curr));
+            if (!Objects.equals(prevValue, currValue)) {
+                changes.add(new FieldChange(field.label(), prevValue, currValue));
+            }
+        }
+        return changes;
+    }
+
+    private static String print(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(String::valueOf).collect(Collectors.joining(", "));
+        }
+        return (String) value;
+    }
+
+    private static TreeSet<String> names(Collection<String> prev, Collection<String> curr) {
+        TreeSet<String> names = new TreeSet<>(prev);
+        names.addAll(curr);
+        return names;
+    }
+}
@@ -0,0 +1,131 @@
+package org.cdisc.tools;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Structural hashes of the classes and properties of one model, computed once
+ * per model.
+ * A property hash covers every field in PROPERTY_FIELDS, and a class hash covers
+ * CLASS_FIELDS plus the name and hash of each of its properties in name order.
+ * Hashes are 64 bit FNV-1a over the field values, so they are stable across
+ * runs and JVMs and two releases can be compared class by class with a single
+ * long comparison.
+ */
+public final class ModelFingerprint {
+
+    /**
+     * A compared field: its label in the delta, and its value, either a String
+     * or a Collection of them
+     */
+    public record Field<T>(String label, Function<T, Object> value) {
+    }
+
+    public static final List<Field<ModelClass>> CLASS_FIELDS = List.of(
+            new Field<>("Super Classes", ModelClass::getSuperClasses),
+            new Field<>("Sub Classes", ModelClass::getSubClasses),
+            new Field<>("NCI C-Code", ModelClass::getDefNciCode),
+            new Field<>("Preferred Term", ModelClass::getPreferredTerm),
+            new Field<>("Definition", ModelClass::getDefinition));
+
+    public static final List<Field<ModelClassProperty>> PROPERTY_FIELDS = List.of(
+            new Field<>("Data Type", ModelClassProperty::getTypes),
+            new Field<>("Cardinality", ModelClassProperty::getMultiplicity),
+            new Field<>("Inherited From", ModelClassProperty::getInheritedFrom),
+            new Field<>("Codelist Ref", ModelClassProperty::getCodeListReference),
+            new Field<>("NCI C-Code", ModelClassProperty::getDefNciCode),
+            new Field<>("Preferred Term", ModelClassProperty::getPreferredTerm),
+            new Field<>("Definition", ModelClassProperty::getDefinition));
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL = 0x9e3779b97f4a7c15L;
+
+    // Class name -> class hash
+    private final Map<String, Long> classHashes = new HashMap<>();
+    // Class name -> property name -> property hash
+    private final Map<String, Map<String, Long>> propertyHashes = new HashMap<>();
+
+    private ModelFingerprint() {
+    }
+
+    public static ModelFingerprint of(Map<String, ModelClass> model) {
+        ModelFingerprint fingerprint = new ModelFingerprint();
+        for (Map.Entry<String, ModelClass> entry : model.entrySet()) {
+            ModelClass modelClass = entry.getValue();
+            Map<String, Long> properties = new HashMap<>();
+            long hash = mix(OFFSET_BASIS, modelClass.getName());
+            for (Field<ModelClass> field : CLASS_FIELDS) {
+                hash = mix(hash, field.value().apply(modelClass));
+            }
+            for (Map.Entry<String, ModelClassProperty> property : new TreeMap<>(modelClass.getProperties())
+                    .entrySet()) {
+                long propertyHash = hash(property.getValue());
+                properties.put(property.getKey(), propertyHash);
+                hash = mix(mix(hash, property.getKey()), propertyHash);
+            }
+            fingerprint.classHashes.put(entry.getKey(), hash);
+            fingerprint.propertyHashes.put(entry.getKey(), properties);
+        }
+        return fingerprint;
+    }
+
+    public static long hash(ModelClassProperty property) {
+        long hash = mix(OFFSET_BASIS, property.getName());
+        for (Field<ModelClassProperty> field : PROPERTY_FIELDS) {
+            hash = mix(hash, field.value().apply(property));
+        }
+        return hash;
+    }
+
+    /**
+     * Classes and properties are looked up by their keys in the model maps
+     *
+     * @return the hash of className, or null when the model has no such class
+     */
+    public Long getClassHash(String className) {
+        return classHashes.get(className);
+    }
+
+    /**
+     * @return the hash of a property of className, or null when there is no such
+     *         property
+     */
+    public Long getPropertyHash(String className, String propertyName) {
+        Map<String, Long> properties = propertyHashes.get(className);
+        return properties == null ? null : properties.get(propertyName);
+    }
+
+    private static long mix(long hash, Object value) {
+        if (value == null) {
+            return mix(hash, NULL);
+        }
+        if (value instanceof Collection) {
+            hash = mix(hash, (long) ((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) {
+                hash = mix(hash, item);
+            }
+            return hash;
+        }
+        String text = value.toString();
+        // The length keeps ("ab", "c") and ("a", "bc") apart
+        hash = mix(hash, (long) text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash = (hash ^ (c & 0xff)) * PRIME;
+            hash = (hash ^ (c >>> 8)) * PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ ((value >>> (i * 8)) & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,185 @@
+package org.cdisc.tools;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Estimated heap footprint of a model: how many objects it retains and how many
+ * bytes they take, counting each object once however many times it is
+ * referenced, so that shared (interned) strings only count once.
+ * Sizes follow the layout of a 64 bit HotSpot JVM with compressed references:
+ * 12 byte object headers, 4 byte references, 16 byte array headers, 8 byte
+ * alignment, and Latin-1 compact strings. They are estimates meant to compare
+ * two forms of the same model, not a replacement for a heap dump.
+ */
+public record ModelFootprint(int classes, int properties, long objects, long bytes, long strings,
+        long stringBytes) {
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    public static ModelFootprint of(Map<String, ModelClass> model) {
+        Walker walker = new Walker();
+        walker.map(model);
+        int properties = 0;
+        for (ModelClass modelClass : model.values()) {
+            properties += modelClass.getProperties().size();
+        }
+        return new ModelFootprint(model.size(), properties, walker.objects, walker.bytes, walker.strings,
+                walker.stringBytes);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static long referenceArray(long length) {
+        return align(ARRAY_HEADER + length * REFERENCE);
+    }
+
+    // Capacity of the table of a HashMap holding size entries at the default load
+    // factor
+    private static int tableSize(int size) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%1$d classes, %2$d properties: %3$d objects, %4$,d bytes (%5$d strings, %6$,d bytes)", classes, properties, objects, bytes, strings, stringBytes);
+    }
+
+    private static class Walker {
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long objects;
+        private long bytes;
+        private long strings;
+        private long stringBytes;
+
+        private boolean first(Object object) {
+            return object != null && seen.add(object);
+        }
+
+        private void count(long objectCount, long size) {
+            objects += objectCount;
+            bytes += size;
+        }
+
+        private void string(String value) {
+            if (!first(value)) {
+                return;
+            }
+            // String (hash, coder, hashIsZero, value) and its byte[]
+            long size = align(HEADER + 4 + 1 + 1 + REFERENCE) + align(ARRAY_HEADER + value.length());
+            count(2, size);
+            strings++;
+            stringBytes += size;
+        }
+
+        private void map(Map<String, ?> map) {
+            if (!first(map)) {
+                return;
+            }
+            int size = map.size();
+            if (map instanceof FrozenMap<?> frozen) {
+                // keys, values and the optional index
+                count(3, align(HEADER + 3 * REFERENCE) + 2 * referenceArray(size));
+                if (frozen.indexSize() > 0) {
+                    count(1, align(ARRAY_HEADER + 4L * frozen.indexSize()));
+                }
+            } else if (map instanceof TreeMap) {
+                count(1 + size, align(HEADER + 4 * REFERENCE + 2 * 4) + size * align(HEADER + 5 * REFERENCE + 1));
+            } else if (map instanceof LinkedHashMap) {
+                count(2 + size, align(HEADER + 6 * REFERENCE + 3 * 4 + 4 + 1) + referenceArray(tableSize(size))
+                        + size * align(HEADER + 5 * REFERENCE + 4));
+            } else {
+                // Any other map is taken as a HashMap
+                count(2 + size, align(HEADER + 4 * REFERENCE + 4 * 4) + referenceArray(tableSize(size))
+                        + size * align(HEADER + 3 * REFERENCE + 4));
+            }
+            for (Map.Entry<String, ?> entry : map.entrySet()) {
+                string(entry.getKey());
+                Object value = entry.getValue();
+                if (value instanceof ModelClass modelClass) {
+                    modelClass(modelClass);
+                } else if (value instanceof ModelClassProperty property) {
+                    property(property);
+                }
+            }
+        }
+
+        private void strings(Collection<String> collection) {
+            if (!first(collection)) {
+                return;
+            }
+            int size = collection.size();
+            if (collection instanceof FrozenSet) {
+                count(2, align(HEADER + REFERENCE) + referenceArray(size));
+            } else if (collection instanceof TreeSet) {
+                // TreeSet, its TreeMap and the entries
+                count(2 + size, align(HEADER + REFERENCE) + align(HEADER + 4 * REFERENCE + 2 * 4)
+                        + size * align(HEADER + 5 * REFERENCE + 1));
+            } else if (collection instanceof LinkedHashSet) {
+                count(3 + size, align(HEADER + REFERENCE) + align(HEADER + 6 * REFERENCE + 3 * 4 + 4 + 1)
+                        + referenceArray(tableSize(size)) + size * align(HEADER + 5 * REFERENCE + 4));
+            } else if (collection instanceof HashSet) {
+                count(3 + size, align(HEADER + REFERENCE) + align(HEADER + 4 * REFERENCE + 4 * 4)
+                        + referenceArray(tableSize(size)) + size * align(HEADER + 3 * REFERENCE + 4));
+            } else if (collection instanceof List) {
+                // ArrayList or an immutable list, and its array
+                count(2, align(HEADER + REFERENCE + 2 * 4) + referenceArray(size));
+            } else {
+                count(1, align(HEADER + REFERENCE) + size * REFERENCE);
+            }
+            collection.forEach(this::string);
+        }
+
+        private void descriptor(Descriptor descriptor) {
+            string(descriptor.getName());
+            string(descriptor.getDefinition());
+            string(descriptor.getCardinality());
+            string(descriptor.getPreferredTerm());
+            string(descriptor.getDefNciCode());
+        }
+
+        private void modelClass(ModelClass modelClass) {
+            if (!first(modelClass)) {
+                return;
+            }
+            // 5 descriptor strings, frozen, properties, superClasses, subClasses
+            count(1, align(HEADER + 8 * REFERENCE + 1));
+            descriptor(modelClass);
+            map(modelClass.getProperties());
+            strings(modelClass.getSuperClasses());
+            strings(modelClass.getSubClasses());
+        }
+
+        private void property(ModelClassProperty property) {
+            if (!first(property)) {
+                return;
+            }
+            // 5 descriptor strings, frozen, types, codeListReference,
+            // multiplicity, inheritedFrom
+            count(1, align(HEADER + 9 * REFERENCE + 1));
+            descriptor(property);
+            strings(property.getTypes());
+            strings(property.getCodeListReference());
+            string(property.getMultiplicity());
+            string(property.getInheritedFrom());
+        }
+    }
+}
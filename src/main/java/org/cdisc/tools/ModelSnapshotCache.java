@@ -0,0 +1,349 @@
+package org.cdisc.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * On disk cache of loaded models (Map<String, ModelClass>), keyed by a SHA-256
+ * of the input files.
+ * The key also covers the snapshot format version, the bytecode of the classes
+ * that build the models and the options
+ * that change what they produce (i.e. the loader), so a change to any input
+ * file, to the parsers or to those options
+ * simply leads to a different file name and a cache miss. Only the latest
+ * snapshot of each kind is kept.
+ * Snapshots use a compact binary layout: a string table, in which every
+ * distinct name, type or multiplicity is
+ * stored once, followed by the classes and their properties as indexes into
+ * that table. Files are memory mapped and
+ * decoded directly from the mapped buffer.
+ * Any problem reading a snapshot is logged and treated as a miss.
+ */
+public class ModelSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelSnapshotCache.class);
+
+    // Bump whenever the layout below, or what the parsers put into ModelClass,
+    // changes
+    public static final int FORMAT_VERSION = 3;
+    private static final int MAGIC = 0x55534d53; // "USMS"
+    private static final String EXTENSION = ".snapshot";
+    // Classes deciding what ends up in a snapshot, hashed into every key so a
+    // rebuilt parser never reads a stale one
+    private static final List<Class<?>> PARSER_CLASSES = List.of(UsdmParser.class, UsdmStaxParser.class,
+            InheritanceGraph.class, InheritanceGraph.Member.class, Descriptor.class, ModelClass.class,
+            ModelClassProperty.class, CptParser.class, CptIndex.class, CptRecord.class, CptSpreadsheetReader.class,
+            ModelSnapshotCache.class);
+    private static final String BUILD_IDENTITY = buildIdentity();
+
+    private final Path directory;
+
+    public ModelSnapshotCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Builds the cache key of a snapshot kind for the given input files and
+     * options
+     *
+     * @param kind    - What is cached, i.e. "model" or "model-ct"
+     * @param options - Anything else that changes the result, i.e. the loader
+     * @param inputs  - Input files, hashed by content
+     * @throws IOException
+     */
+    public static String key(String kind, List<String> options, URL... inputs) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(String.format("%1$s|%2$d|%3$s|%4$s", kind, FORMAT_VERSION, BUILD_IDENTITY,
+                String.join(",", options)).getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[64 * 1024];
+        for (URL input : inputs) {
+            try (InputStream stream = input.openStream()) {
+                for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            // Keeps the boundary between files part of the hash
+            digest.update((byte) 0);
+        }
+        return kind + "-" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of the class files of PARSER_CLASSES, or the implementation version
+     * of the package when they cannot be
+     * read
+     */
+    private static String buildIdentity() {
+        MessageDigest digest = sha256();
+        for (Class<?> parserClass : PARSER_CLASSES) {
+            String classFile = parserClass.getName().substring(parserClass.getPackageName().length() + 1)
+                    + ".class";
+            try (InputStream stream = parserClass.getResourceAsStream(classFile)) {
+                if (stream == null) {
+                    logger.warn(String.format("Could not read %1$s, using the implementation version", classFile));
+                    return String.valueOf(ModelSnapshotCache.class.getPackage().getImplementationVersion());
+                }
+                digest.update(stream.readAllBytes());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Snapshot kind of one of several models of the same sort, i.e. one per
+     * release, so their snapshots do not replace each
+     * other. Characters that do not belong in a file name are replaced by '_'.
+     *
+     * @param kind - What is cached, i.e. "release-model"
+     * @param name - Which one, i.e. "prevRelease/" or a git ref
+     */
+    public static String kind(String kind, String name) {
+        return kind + "-" + name.replaceAll("[^A-Za-z0-9._]", "_");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Path pathOf(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    /**
+     * Loads the snapshot stored under key into elements
+     *
+     * @return false when there is no usable snapshot for the key
+     */
+    public boolean load(String key, Map<String, ModelClass> elements) {
+        Path file = pathOf(key);
+        if (!Files.isRegularFile(file)) {
+            logger.info(String.format("No model snapshot %1$s", file));
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Map<String, ModelClass> loaded = read(buffer);
+            elements.putAll(loaded);
+            logger.info(String.format("Loaded %1$d classes from model snapshot %2$s", loaded.size(), file));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn(String.format("Ignoring unreadable model snapshot %1$s: %2$s", file, e));
+            return false;
+        }
+    }
+
+    /**
+     * Stores elements under key, replacing older snapshots of the same kind.
+     * Failures are logged, as the cache is only an optimization.
+     */
+    public void store(String key, Map<String, ModelClass> elements) {
+        Path file = pathOf(key);
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                write(elements, out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            String kind = key.substring(0, key.lastIndexOf('-'));
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, kind + "-*" + EXTENSION)) {
+                for (Path old : stale) {
+                    String oldKey = old.getFileName().toString();
+                    oldKey = oldKey.substring(0, oldKey.length() - EXTENSION.length());
+                    if (!old.equals(file) && oldKey.lastIndexOf('-') == kind.length()) {
+                        Files.deleteIfExists(old);
+                    }
+                }
+            }
+            logger.info(String.format("Stored model snapshot %1$s", file));
+        } catch (IOException e) {
+            logger.warn(String.format("Could not store model snapshot %1$s: %2$s", file, e));
+        }
+    }
+
+    static void write(Map<String, ModelClass> elements, OutputStream stream) throws IOException {
+        // Collect the distinct strings first, so the body only holds indexes
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<ModelClass> classes = new ArrayList<>(elements.values());
+        for (ModelClass modelClass : classes) {
+            collect(strings, modelClass);
+            collect(strings, modelClass.getSuperClasses());
+            collect(strings, modelClass.getSubClasses());
+            for (ModelClassProperty property : modelClass.getProperties().values()) {
+                collect(strings, property);
+                collect(strings, property.getTypes());
+                collect(strings, property.getCodeListReference());
+                collect(strings, property.getMultiplicity());
+                collect(strings, property.getInheritedFrom());
+            }
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(strings.size());
+        for (String value : strings.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(classes.size());
+        for (ModelClass modelClass : classes) {
+            writeDescriptor(out, strings, modelClass);
+            writeStrings(out, strings, modelClass.getSuperClasses());
+            writeStrings(out, strings, modelClass.getSubClasses());
+            out.writeInt(modelClass.getProperties().size());
+            for (ModelClassProperty property : modelClass.getProperties().values()) {
+                writeDescriptor(out, strings, property);
+                writeStrings(out, strings, property.getTypes());
+                writeStrings(out, strings, property.getCodeListReference());
+                out.writeInt(indexOf(strings, property.getMultiplicity()));
+                out.writeInt(indexOf(strings, property.getInheritedFrom()));
+            }
+        }
+        out.flush();
+    }
+
+    static Map<String, ModelClass> read(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Not a model snapshot of version " + FORMAT_VERSION);
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int classCount = buffer.getInt();
+            Map<String, ModelClass> elements = new LinkedHashMap<>();
+            for (int i = 0; i < classCount; i++) {
+                String[] descriptor = readDescriptor(buffer, strings);
+                ModelClass modelClass = new ModelClass(descriptor[0], new LinkedHashMap<>(), descriptor[1]);
+                applyDescriptor(modelClass, descriptor);
+                modelClass.getSuperClasses().addAll(readStrings(buffer, strings));
+                modelClass.getSubClasses().addAll(readStrings(buffer, strings));
+                int propertyCount = buffer.getInt();
+                for (int j = 0; j < propertyCount; j++) {
+                    String[] propDescriptor = readDescriptor(buffer, strings);
+                    List<String> types = readStrings(buffer, strings);
+                    List<String> codeLists = readStrings(buffer, strings);
+                    String multiplicity = stringAt(strings, buffer.getInt());
+                    String inheritedFrom = stringAt(strings, buffer.getInt());
+                    // Types are set directly, as addType would escape them a second time
+                    ModelClassProperty property = new ModelClassProperty(propDescriptor[0], null,
+                            codeLists, propDescriptor[1], inheritedFrom, multiplicity);
+                    property.setTypes(types == null ? new LinkedHashSet<>() : new LinkedHashSet<>(types));
+                    applyDescriptor(property, propDescriptor);
+                    modelClass.getProperties().put(property.getName(), property);
+                }
+                elements.put(modelClass.getName(), modelClass);
+            }
+            return elements;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Truncated model snapshot", e);
+        }
+    }
+
+    private static void collect(Map<String, Integer> strings, Descriptor descriptor) {
+        collect(strings, descriptor.getName());
+        collect(strings, descriptor.getDefinition());
+        collect(strings, descriptor.getCardinality());
+        collect(strings, descriptor.getPreferredTerm());
+        collect(strings, descriptor.getDefNciCode());
+    }
+
+    private static void collect(Map<String, Integer> strings, Collection<String> values) {
+        if (values != null) {
+            for (String value : values) {
+                collect(strings, value);
+            }
+        }
+    }
+
+    private static void collect(Map<String, Integer> strings, String value) {
+        if (value != null) {
+            strings.putIfAbsent(value, strings.size());
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> strings, String value) {
+        return value == null ? -1 : strings.get(value);
+    }
+
+    private static String stringAt(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static void writeDescriptor(DataOutputStream out, Map<String, Integer> strings, Descriptor descriptor)
+            throws IOException {
+        out.writeInt(indexOf(strings, descriptor.getName()));
+        out.writeInt(indexOf(strings, descriptor.getDefinition()));
+        out.writeInt(indexOf(strings, descriptor.getCardinality()));
+        out.writeInt(indexOf(strings, descriptor.getPreferredTerm()));
+        out.writeInt(indexOf(strings, descriptor.getDefNciCode()));
+    }
+
+    private static String[] readDescriptor(ByteBuffer buffer, String[] strings) {
+        String[] descriptor = new String[5];
+        for (int i = 0; i < descriptor.length; i++) {
+            descriptor[i] = stringAt(strings, buffer.getInt());
+        }
+        return descriptor;
+    }
+
+    private static void applyDescriptor(Descriptor target, String[] descriptor) {
+        target.setCardinality(descriptor[2]);
+        target.setPreferredTerm(descriptor[3]);
+        target.setDefNciCode(descriptor[4]);
+    }
+
+    // A null collection is written as -1, so it can be told apart from an empty one
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> strings, Collection<String> values)
+            throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(indexOf(strings, value));
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer, String[] strings) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(stringAt(strings, buffer.getInt()));
+        }
+        return values;
+    }
+}
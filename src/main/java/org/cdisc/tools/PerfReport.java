@@ -0,0 +1,128 @@
+package org.cdisc.tools;
+
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Performance report of a GeneratorApp run, written as JSON with
+ * --perf-report: for every StageGraph, the wall time, CPU time, allocated
+ * bytes and elements of each stage and of the phases nested in it, plus the
+ * process CPU time, peak heap and GC totals of the whole run.
+ * Times are in milliseconds, stage starts are offsets from the creation of
+ * their graph, and -1 stands for a figure the JVM does not measure.
+ */
+public class PerfReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfReport.class);
+
+    private final List<String> args;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final List<StageGraph> graphs = new ArrayList<>();
+
+    /**
+     * @param args - Command line of the run, written as is
+     */
+    public PerfReport(List<String> args) {
+        this.args = List.copyOf(args);
+    }
+
+    public synchronized void add(StageGraph graph) {
+        graphs.add(graph);
+    }
+
+    public synchronized void write(Path file) throws IOException {
+        try (JsonWriter json = new JsonWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("args").beginArray();
+            for (String arg : args) {
+                json.value(arg);
+            }
+            json.endArray();
+            json.name("startedAt").value(startedAt.toString());
+            json.name("wallMillis").value(millis(System.nanoTime() - startNanos));
+            long cpuNanos = processCpuNanos();
+            json.name("cpuMillis").value(cpuNanos < 0 ? -1 : millis(cpuNanos));
+            json.name("peakHeapBytes").value(peakHeapBytes());
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, collector.getCollectionCount());
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            json.name("gcCount").value(gcCount);
+            json.name("gcMillis").value(gcMillis);
+            json.name("graphs").beginArray();
+            for (StageGraph graph : graphs) {
+                json.beginObject();
+                json.name("name").value(graph.getName());
+                json.name("stages").beginArray();
+                for (StageGraph.Phase phase : graph.getPhases()) {
+                    writePhase(json, phase, graph.getCreatedNanos());
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        logger.info(String.format("Performance report written to %1$s", file));
+    }
+
+    private static void writePhase(JsonWriter json, StageGraph.Phase phase, long originNanos) throws IOException {
+        json.beginObject();
+        json.name("name").value(phase.getName());
+        json.name("thread").value(phase.getThread());
+        json.name("startMillis").value(millis(phase.getStartNanos() - originNanos));
+        json.name("wallMillis").value(millis(phase.getWallNanos()));
+        json.name("cpuMillis").value(phase.getCpuNanos() < 0 ? -1 : millis(phase.getCpuNanos()));
+        json.name("allocatedBytes").value(phase.getAllocatedBytes());
+        json.name("elements").value(phase.getElements());
+        List<StageGraph.Phase> phases = phase.getPhases();
+        if (!phases.isEmpty()) {
+            json.name("phases").beginArray();
+            for (StageGraph.Phase nested : phases) {
+                writePhase(json, nested, originNanos);
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static long processCpuNanos() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    // Sum of the peak usage of the heap pools, as good an estimate of the peak
+    // heap as the JVM offers without a recording
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
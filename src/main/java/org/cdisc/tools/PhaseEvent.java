@@ -0,0 +1,45 @@
+package org.cdisc.tools;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed when a StageGraph stage, or a phase within one, ends. It
+ * is recorded with -XX:StartFlightRecording and shows up in JDK Mission Control
+ * under "USDM Dictionary Generator", with the same figures as --perf-report.
+ */
+@Name("org.cdisc.tools.Phase")
+@Label("Generator Phase")
+@Category("USDM Dictionary Generator")
+@Description("A stage of a GeneratorApp mode, or a phase within a stage")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+    @Label("Run")
+    @Description("Mode the phase belongs to, i.e. gen-table")
+    String run;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Parent Phase")
+    String parent;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Elements")
+    @Description("Classes, rows or schemas handled by the phase, -1 when unknown")
+    long elements;
+}
@@ -0,0 +1,113 @@
+package org.cdisc.tools;
+
+import org.cdisc.tools.ModelDelta.ClassDelta;
+import org.cdisc.tools.ModelDelta.PropertyDelta;
+import org.cdisc.tools.ModelDelta.Status;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * When each class and attribute was introduced, changed or removed over an
+ * ordered list of releases.
+ * The history is built from the first release and the ModelDelta between each
+ * pair of adjacent releases, so every release is loaded and fingerprinted once
+ * however many releases there are. Everything in the first release counts as
+ * NEW in it.
+ */
+public class ReleaseHistory {
+
+    public static final String CLASS_COLUMN = "Class";
+    public static final String ATTRIBUTE_COLUMN = "Attribute";
+
+    private final List<String> releases;
+    // Class name -> attribute name ("" for the class itself) -> status per release
+    private final Map<String, Map<String, Status[]>> matrix = new TreeMap<>();
+
+    /**
+     * @param releases - Release labels, oldest first
+     * @param first    - Model of the first release
+     * @param deltas   - deltas.get(i) goes from release i to release i + 1
+     */
+    public ReleaseHistory(List<String> releases, Map<String, ModelClass> first, List<ModelDelta> deltas) {
+        if (deltas.size() != releases.size() - 1) {
+            throw new IllegalArgumentException(String.format("%1$d releases need %2$d deltas, not %3$d",
+                    releases.size(), releases.size() - 1, deltas.size()));
+        }
+        this.releases = List.copyOf(releases);
+        for (Map.Entry<String, ModelClass> entry : first.entrySet()) {
+            addClass(0, Status.NEW, entry.getKey(), entry.getValue());
+        }
+        for (int i = 0; i < deltas.size(); i++) {
+            for (ClassDelta classDelta : deltas.get(i).classes()) {
+                if (classDelta.status() == Status.CHANGED) {
+                    set(i + 1, classDelta.name(), "", Status.CHANGED);
+                    for (PropertyDelta property : classDelta.properties()) {
+                        set(i + 1, classDelta.name(), property.name(), property.status());
+                    }
+                } else {
+                    addClass(i + 1, classDelta.status(), classDelta.name(), classDelta.modelClass());
+                }
+            }
+        }
+    }
+
+    private void addClass(int release, Status status, String className, ModelClass modelClass) {
+        set(release, className, "", status);
+        for (String propertyName : modelClass.getProperties().keySet()) {
+            set(release, className, propertyName, status);
+        }
+    }
+
+    private void set(int release, String className, String attributeName, Status status) {
+        matrix.computeIfAbsent(className, key -> new TreeMap<>())
+                .computeIfAbsent(attributeName, key -> new Status[releases.size()])[release] = status;
+    }
+
+    public List<String> getReleases() {
+        return releases;
+    }
+
+    /**
+     * @return the status of a class (attributeName "") or attribute in a release,
+     *         null when it did not change in it
+     */
+    public Status getStatus(String className, String attributeName, String release) {
+        Map<String, Status[]> attributes = matrix.get(className);
+        Status[] statuses = attributes == null ? null : attributes.get(attributeName);
+        return statuses == null ? null : statuses[releases.indexOf(release)];
+    }
+
+    public List<String> labels() {
+        List<String> labels = new ArrayList<>();
+        labels.add(CLASS_COLUMN);
+        labels.add(ATTRIBUTE_COLUMN);
+        labels.addAll(releases);
+        return labels;
+    }
+
+    /**
+     * One record per class followed by one per attribute, in name order, keyed by
+     * labels()
+     */
+    public List<Map<String, Object>> records() {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Status[]>> classEntry : matrix.entrySet()) {
+            for (Map.Entry<String, Status[]> attributeEntry : classEntry.getValue().entrySet()) {
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put(CLASS_COLUMN, classEntry.getKey());
+                record.put(ATTRIBUTE_COLUMN, attributeEntry.getKey());
+                for (int i = 0; i < releases.size(); i++) {
+                    if (attributeEntry.getValue()[i] != null) {
+                        record.put(releases.get(i), attributeEntry.getValue()[i].toString());
+                    }
+                }
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,89 @@
+package org.cdisc.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the OpenAPI schemas of the USDM API document, built once from
+ * components.schemas.
+ * Schemas are looked up by name in a map, and "$ref" values are resolved once
+ * per distinct reference and memoized,
+ * instead of rewriting every reference into a JsonPath expression and
+ * evaluating it against the whole document.
+ * The returned objects are shared, not copies.
+ */
+public class SchemaRegistry {
+
+    private static final String SCHEMAS_REF = "#/components/schemas/";
+    private static final String OUTPUT_SUFFIX = "-Output";
+    private static final ApiSchema NOT_FOUND = new ApiSchema(null, null, null);
+
+    private final Map<String, ApiSchema> schemas;
+    private final Map<String, ApiSchema> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * @param schemas - components.schemas by name
+     */
+    public SchemaRegistry(Map<String, ApiSchema> schemas) {
+        this.schemas = schemas;
+    }
+
+    /**
+     * Streams the schemas of an API document, see ApiSchemaReader
+     */
+    public static SchemaRegistry read(InputStream stream) throws IOException {
+        return new SchemaRegistry(ApiSchemaReader.read(stream));
+    }
+
+    public Map<String, ApiSchema> getSchemas() {
+        return schemas;
+    }
+
+    /**
+     * @return the schema called name, or null when there is none
+     */
+    public ApiSchema getSchema(String name) {
+        return schemas.get(name);
+    }
+
+    /**
+     * Properties of the API class matching a model class: those of the schema
+     * named after the class or, failing that, those
+     * of its "-Output" variant
+     *
+     * @return null when neither schema defines properties
+     */
+    public Map<String, ApiSchemaProperty> getClassProperties(String className) {
+        for (String name : List.of(className, className + OUTPUT_SUFFIX)) {
+            ApiSchema schema = getSchema(name);
+            if (schema != null && schema.getProperties() != null) {
+                return schema.getProperties();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a schema "$ref" (i.e. "#/components/schemas/Study-Output")
+     *
+     * @return the referenced schema, or null when it does not exist
+     */
+    public ApiSchema resolve(String ref) {
+        ApiSchema schema = resolved.computeIfAbsent(ref, key -> {
+            ApiSchema target = null;
+            if (key.startsWith(SCHEMAS_REF) && key.indexOf('/', SCHEMAS_REF.length()) < 0) {
+                target = schemas.get(unescape(key.substring(SCHEMAS_REF.length())));
+            }
+            return target == null ? NOT_FOUND : target;
+        });
+        return schema == NOT_FOUND ? null : schema;
+    }
+
+    // JSON pointer escapes
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
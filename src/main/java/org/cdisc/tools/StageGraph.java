@@ -0,0 +1,400 @@
+package org.cdisc.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small DAG scheduler used by the GeneratorApp modes.
+ * A mode is described as stages (i.e. parse XMI, parse CT, parse API, merge,
+ * emit), each one declaring the stages it
+ * depends on. A stage is started as soon as all of its dependencies are done,
+ * so independent inputs are read in
+ * parallel. Once everything has finished, start/end offsets and durations of
+ * every stage are logged together with
+ * the critical path, i.e. the chain of dependencies that determined the total
+ * time.
+ * Every stage is also measured as a Phase (wall time, CPU time, allocated bytes
+ * and elements), and code running in a stage can open nested phases with
+ * phase(name). Phases are committed as PhaseEvents for JFR and handed to the
+ * PerfReport, if any.
+ */
+public class StageGraph implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StageGraph.class);
+    private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+    // Innermost open phase of each thread
+    private static final ThreadLocal<Phase> current = new ThreadLocal<>();
+
+    public class Stage<T> {
+        private final String name;
+        private final List<Stage<?>> dependencies;
+        private CompletableFuture<T> future;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile Phase phase;
+
+        private Stage(String name, List<Stage<?>> dependencies) {
+            this.name = name;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * Result of the stage, waiting for it if necessary. Inside a stage, only
+         * call this on declared dependencies.
+         */
+        public T get() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private long durationMillis() {
+            return (endNanos - startNanos) / 1_000_000;
+        }
+    }
+
+    /**
+     * Wall time, CPU time and bytes allocated by the thread running a stage, or
+     * a part of it, between its start and close(), with the number of elements
+     * it handled. CPU time and allocations of other threads the phase hands work
+     * to (i.e. a parallel stream) are not included. They are -1 when the JVM
+     * does not measure them.
+     */
+    public static class Phase implements AutoCloseable {
+        private final String run;
+        private final String name;
+        private final Phase parent;
+        private final String thread;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startAllocatedBytes;
+        private final PhaseEvent event = new PhaseEvent();
+        private final List<Phase> phases = new ArrayList<>();
+        private long wallNanos;
+        private long cpuNanos = -1;
+        private long allocatedBytes = -1;
+        private long elements = -1;
+
+        private Phase(String run, String name, Phase parent) {
+            this.run = run;
+            this.name = name;
+            this.parent = parent;
+            this.thread = Thread.currentThread().getName();
+            this.startCpuNanos = threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+            this.startAllocatedBytes = threads.isThreadAllocatedMemorySupported()
+                    ? threads.getCurrentThreadAllocatedBytes()
+                    : -1;
+            current.set(this);
+            event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Sets the number of elements (i.e. classes or rows) the phase handled
+         */
+        public void elements(long count) {
+            this.elements = count;
+        }
+
+        @Override
+        public void close() {
+            wallNanos = System.nanoTime() - startNanos;
+            if (startCpuNanos >= 0) {
+                cpuNanos = threads.getCurrentThreadCpuTime() - startCpuNanos;
+            }
+            if (startAllocatedBytes >= 0) {
+                allocatedBytes = threads.getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+            }
+            if (parent == null) {
+                current.remove();
+            } else {
+                current.set(parent);
+                synchronized (parent.phases) {
+                    parent.phases.add(this);
+                }
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.run = run;
+                event.phase = name;
+                event.parent = parent == null ? null : parent.name;
+                event.cpuTime = cpuNanos;
+                event.allocated = allocatedBytes;
+                event.elements = elements;
+                event.commit();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+
+        /**
+         * Nested phases, in the order they ended
+         */
+        public List<Phase> getPhases() {
+            synchronized (phases) {
+                return List.copyOf(phases);
+            }
+        }
+    }
+
+    private final String name;
+    private final ExecutorService executor;
+    private final List<Stage<?>> stages = new ArrayList<>();
+    private final long createdNanos = System.nanoTime();
+    private final PerfReport report;
+
+    /**
+     * @param name        - Name used when logging the timings (i.e. the mode)
+     * @param parallelism - Maximum number of stages running at the same time
+     * @param report      - Receives the phases of every stage once they are all
+     *                    done, may be null
+     */
+    public StageGraph(String name, int parallelism, PerfReport report) {
+        this.name = name;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        this.report = report;
+    }
+
+    public StageGraph(String name, int parallelism) {
+        this(name, parallelism, null);
+    }
+
+    public StageGraph(String name, PerfReport report) {
+        this(name, Runtime.getRuntime().availableProcessors(), report);
+    }
+
+    public StageGraph(String name) {
+        this(name, (PerfReport) null);
+    }
+
+    /**
+     * Opens a phase nested in the innermost phase of the calling thread, i.e.
+     * the stage it runs in. To be closed on the same thread, with
+     * try-with-resources.
+     */
+    public static Phase phase(String name) {
+        Phase parent = current.get();
+        return new Phase(parent == null ? null : parent.run, name, parent);
+    }
+
+    /**
+     * Sets the number of elements handled by the innermost phase of the calling
+     * thread, if any
+     */
+    public static void elements(long count) {
+        Phase phase = current.get();
+        if (phase != null) {
+            phase.elements(count);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Phases of the stages that ran, in the order the stages were added
+     */
+    public List<Phase> getPhases() {
+        List<Phase> phases = new ArrayList<>();
+        for (Stage<?> stage : stages) {
+            if (stage.phase != null) {
+                phases.add(stage.phase);
+            }
+        }
+        return phases;
+    }
+
+    /**
+     * Adds a stage that starts once all the given dependencies have completed
+     * successfully
+     *
+     * @param name         - Stage name, used in logs
+     * @param work         - What the stage does, its result is available through
+     *                     Stage.get()
+     * @param dependencies - Stages that must finish first
+     */
+    public <T> Stage<T> stage(String name, Callable<T> work, Stage<?>... dependencies) {
+        Stage<T> stage = new Stage<>(name, List.of(dependencies));
+        CompletableFuture<?>[] upstream = new CompletableFuture<?>[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            upstream[i] = dependencies[i].future;
+        }
+        stage.future = CompletableFuture.allOf(upstream).thenApplyAsync(ignored -> {
+            stage.startNanos = System.nanoTime();
+            try (Phase phase = new Phase(this.name, name, null)) {
+                stage.phase = phase;
+                logger.debug(String.format("Stage %1$s started", name));
+                T result = work.call();
+                if (phase.elements < 0) {
+                    // Steps that only emit a file count what their first input holds
+                    phase.elements(result == null && dependencies.length > 0 ? dependencies[0].phase.elements
+                            : elementsOf(result));
+                }
+                return result;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                stage.endNanos = System.nanoTime();
+                logger.debug(String.format("Stage %1$s finished in %2$d ms", name, stage.durationMillis()));
+            }
+        }, executor);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Stage that only runs side effects (i.e. emitting a file)
+     */
+    public Stage<Void> step(String name, Step work, Stage<?>... dependencies) {
+        return stage(name, () -> {
+            work.run();
+            return null;
+        }, dependencies);
+    }
+
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    /**
+     * Waits for every stage, hands their phases to the report and logs the
+     * timings. When stages failed, all the
+     * failures are logged and the first one is rethrown, with the others
+     * attached as suppressed exceptions.
+     */
+    public void await() {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (Stage<?> stage : stages) {
+            futures.add(stage.future);
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            // Reported stage by stage below
+        }
+        RuntimeException failure = null;
+        for (Stage<?> stage : stages) {
+            if (stage.future.isCompletedExceptionally() && stage.startNanos != 0) {
+                Throwable cause = stage.future.handle((value, e) -> e).join();
+                cause = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+                logger.error(String.format("Stage %1$s failed", stage.name), cause);
+                if (failure == null) {
+                    failure = rethrow(cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (report != null) {
+            report.add(this);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        logTimings();
+    }
+
+    /**
+     * Number of elements in a stage result: classes of a model or a delta, CT
+     * rows, API schemas, or else the size of a collection
+     */
+    private static long elementsOf(Object result) {
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        } else if (result instanceof Collection<?> collection) {
+            return collection.size();
+        } else if (result instanceof ModelDelta delta) {
+            return delta.classes().size();
+        } else if (result instanceof CptParser cpt) {
+            return cpt.getIndex().getRecords().size();
+        } else if (result instanceof SchemaRegistry registry) {
+            return registry.getSchemas().size();
+        }
+        return -1;
+    }
+
+    private void logTimings() {
+        Stage<?> last = null;
+        for (Stage<?> stage : stages) {
+            logger.info(String.format("%1$s stage %2$s: started at %3$d ms, took %4$d ms", name, stage.name,
+                    (stage.startNanos - createdNanos) / 1_000_000, stage.durationMillis()));
+            if (last == null || stage.endNanos > last.endNanos) {
+                last = stage;
+            }
+        }
+        List<String> criticalPath = new ArrayList<>();
+        for (Stage<?> stage = last; stage != null;) {
+            criticalPath.add(0, String.format("%1$s (%2$d ms)", stage.name, stage.durationMillis()));
+            Stage<?> latest = null;
+            for (Stage<?> dependency : stage.dependencies) {
+                if (latest == null || dependency.endNanos > latest.endNanos) {
+                    latest = dependency;
+                }
+            }
+            stage = latest;
+        }
+        logger.info(String.format("%1$s critical path: %2$s, total %3$d ms", name, String.join(" -> ", criticalPath),
+                last == null ? 0 : (last.endNanos - createdNanos) / 1_000_000));
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RuntimeException(cause);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
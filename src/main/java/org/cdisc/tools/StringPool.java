@@ -0,0 +1,31 @@
+package org.cdisc.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Canonical instances of equal strings, so that a model holds "string", "0..1"
+ * or a class name once however many times they occur. Unlike String.intern the
+ * pool goes away with the model.
+ * Not thread safe.
+ */
+public class StringPool {
+
+    private final Map<String, String> strings = new HashMap<>();
+
+    /**
+     * @return the pooled instance equal to value, value itself the first time, or
+     *         null for null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = strings.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+}
@@ -0,0 +1,534 @@
+package org.cdisc.tools;
+
+import com.google.gson.stream.JsonWriter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Synthetic USDM release, scale times the size of the bundled one, for
+ * scalability testing.
+ * The model is drawn from a seeded Random, so the same scale and seed always
+ * give the same release. It is written as the files GeneratorApp reads, laid
+ * out as in the resources folder: the current and previous release XMI, the CT
+ * spreadsheet, the API document and the cardinalities, so every mode can run
+ * on it with the folder first on the class path.
+ * Like the real model, it has abstract classes with (multi-level) sub classes,
+ * attributes typed by other classes, and every concrete class is contained in
+ * Study, directly or not. The previous release lacks a few of the classes and
+ * attributes, and has a few the current release dropped.
+ */
+public class SyntheticRelease {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticRelease.class);
+
+    public static final long DEFAULT_SEED = 20240101L;
+    // Classes per unit of scale, about the size of the bundled release
+    static final int CLASSES_PER_SCALE = 80;
+    private static final String ROOT_CLASS = "Study";
+    // Percentages drawn for each class or attribute
+    private static final int ABSTRACT_PERCENT = 8;
+    private static final int SUB_CLASS_PERCENT = 35;
+    private static final int NEW_CLASS_PERCENT = 4;
+    private static final int NEW_ATTRIBUTE_PERCENT = 5;
+    private static final int DROPPED_ATTRIBUTE_PERCENT = 3;
+    private static final int LIST_PERCENT = 60;
+    private static final int CODE_LIST_PERCENT = 20;
+
+    private static final String[] CLASS_WORDS = { "Arm", "Epoch", "Cell", "Element", "Encounter", "Activity",
+            "Procedure", "Timing", "Timeline", "Objective", "Endpoint", "Estimand", "Population", "Criterion",
+            "Intervention", "Amendment", "Site", "Country", "Document", "Version", "Narrative", "Content",
+            "Condition", "Rule", "Assignment", "Schedule", "Exit", "Decision", "Organization", "Address",
+            "Masking", "Range", "Quantity", "Alias", "Parameter", "Characteristic", "Event", "Reference",
+            "Identifier", "Design" };
+    private static final String[] ATTRIBUTE_WORDS = { "text", "value", "status", "type", "level", "order",
+            "reason", "comment", "date", "duration", "window", "unit", "role", "purpose", "rank", "phase", "scope",
+            "source", "title", "notes", "category", "result", "method", "route", "dose", "frequency", "sequence",
+            "priority", "code", "decode" };
+
+    private final Random random;
+    private final List<SyntheticClass> classes = new ArrayList<>();
+    private int nextCode = 100000;
+
+    private static class SyntheticClass {
+        private final String id;
+        private final String name;
+        private final SyntheticClass parent;
+        private final String generalizationId;
+        private final boolean isAbstract;
+        // Only in the current release
+        private final boolean isNew;
+        private final String nciCode;
+        private final List<SyntheticAttribute> attributes = new ArrayList<>();
+
+        private SyntheticClass(String id, String name, SyntheticClass parent, String generalizationId,
+                boolean isAbstract, boolean isNew, String nciCode) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.generalizationId = generalizationId;
+            this.isAbstract = isAbstract;
+            this.isNew = isNew;
+            this.nciCode = nciCode;
+        }
+
+        // Inherited attributes first, from the top of the hierarchy down
+        private List<SyntheticAttribute> allAttributes() {
+            List<SyntheticAttribute> all = parent == null ? new ArrayList<>() : parent.allAttributes();
+            all.addAll(attributes);
+            return all;
+        }
+    }
+
+    private static class SyntheticAttribute {
+        private final String id;
+        private final String name;
+        private final SyntheticClass owner;
+        // "String", "boolean" or "int", or else the target class name
+        private final String type;
+        private final SyntheticClass target;
+        private final boolean list;
+        // Whether target is contained, rather than referenced by id in the API
+        private final boolean containment;
+        private final boolean isNew;
+        private final boolean dropped;
+        private final String nciCode;
+        private final String codeList;
+        private final String connectorId;
+
+        private SyntheticAttribute(String id, String name, SyntheticClass owner, String type, SyntheticClass target,
+                boolean list, boolean containment, boolean isNew, boolean dropped, String nciCode,
+                String codeList, String connectorId) {
+            this.id = id;
+            this.name = name;
+            this.owner = owner;
+            this.type = type;
+            this.target = target;
+            this.list = list;
+            this.containment = containment;
+            this.isNew = isNew;
+            this.dropped = dropped;
+            this.nciCode = nciCode;
+            this.codeList = codeList;
+            this.connectorId = connectorId;
+        }
+
+        private String umlType() {
+            return list ? "List<" + type + ">" : type;
+        }
+
+        private String multiplicity() {
+            return list ? "0..*" : "0..1";
+        }
+
+        private boolean in(boolean current) {
+            return current ? !dropped : !isNew;
+        }
+    }
+
+    /**
+     * @param scale - Size of the release, in multiples of CLASSES_PER_SCALE
+     *              classes
+     * @param seed  - Seed of the Random the model is drawn from
+     */
+    public SyntheticRelease(int scale, long seed) {
+        if (scale < 1) {
+            throw new IllegalArgumentException(String.format("Invalid scale: %1$d", scale));
+        }
+        this.random = new Random(seed);
+        generate(scale * CLASSES_PER_SCALE);
+    }
+
+    /**
+     * Number of classes in the current release
+     */
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    private void generate(int classCount) {
+        List<SyntheticClass> abstractClasses = new ArrayList<>();
+        List<SyntheticClass> concreteClasses = new ArrayList<>();
+        for (int i = 0; i < classCount; i++) {
+            boolean isAbstract = i > 0 && percent(ABSTRACT_PERCENT);
+            SyntheticClass parent = !abstractClasses.isEmpty() && percent(SUB_CLASS_PERCENT)
+                    ? pick(abstractClasses)
+                    : null;
+            SyntheticClass modelClass = new SyntheticClass(id(), i == 0 ? ROOT_CLASS : className(i), parent,
+                    parent == null ? null : id(), isAbstract, i > 0 && !isAbstract && percent(NEW_CLASS_PERCENT),
+                    code());
+            Set<String> taken = new HashSet<>();
+            modelClass.allAttributes().forEach(attribute -> taken.add(attribute.name));
+            if (parent == null) {
+                addAttribute(modelClass, "id", "String", null, false, false, taken);
+                addAttribute(modelClass, "name", "String", null, false, false, taken);
+                addAttribute(modelClass, "description", "String", null, false, false, taken);
+            }
+            int attributeCount = 1 + random.nextInt(6);
+            for (int k = 0; k < attributeCount; k++) {
+                int kind = random.nextInt(100);
+                SyntheticClass target = kind < 15 && !concreteClasses.isEmpty() ? pick(concreteClasses) : null;
+                boolean list = percent(LIST_PERCENT);
+                if (target != null && !taken.contains(lowerCamel(target.name) + (list ? "s" : ""))) {
+                    addAttribute(modelClass, lowerCamel(target.name) + (list ? "s" : ""), target.name, target, list,
+                            false, taken);
+                } else {
+                    String type = kind < 75 ? "String" : kind < 90 ? "boolean" : "int";
+                    addAttribute(modelClass, attributeName(taken), type, null, false, false, taken);
+                }
+            }
+            if (!isAbstract && i > 0) {
+                SyntheticClass container = pick(concreteClasses);
+                boolean list = percent(LIST_PERCENT);
+                addAttribute(container, lowerCamel(modelClass.name) + (list ? "s" : ""), modelClass.name, modelClass,
+                        list, true, null);
+            }
+            classes.add(modelClass);
+            (isAbstract ? abstractClasses : concreteClasses).add(modelClass);
+        }
+    }
+
+    private void addAttribute(SyntheticClass owner, String name, String type, SyntheticClass target, boolean list,
+            boolean containment, Set<String> taken) {
+        if (taken != null) {
+            taken.add(name);
+        }
+        boolean isNew = owner.isNew || (target != null && target.isNew) || percent(NEW_ATTRIBUTE_PERCENT);
+        // Only attributes without a target can be dropped, so no class is left
+        // without its container
+        boolean dropped = !isNew && target == null && !name.equals("id") && percent(DROPPED_ATTRIBUTE_PERCENT);
+        String codeList = target == null && type.equals("String") && percent(CODE_LIST_PERCENT) ? code() : null;
+        owner.attributes.add(new SyntheticAttribute(id(), name, owner, type, target, list, containment, isNew,
+                dropped, code(), codeList, target == null ? null : id()));
+    }
+
+    private String attributeName(Set<String> taken) {
+        String name = ATTRIBUTE_WORDS[random.nextInt(ATTRIBUTE_WORDS.length)];
+        if (taken.contains(name)) {
+            name = name + capitalize(ATTRIBUTE_WORDS[random.nextInt(ATTRIBUTE_WORDS.length)]);
+        }
+        String unique = name;
+        for (int i = 2; taken.contains(unique); i++) {
+            unique = name + i;
+        }
+        return unique;
+    }
+
+    private String className(int index) {
+        return CLASS_WORDS[random.nextInt(CLASS_WORDS.length)] + CLASS_WORDS[random.nextInt(CLASS_WORDS.length)]
+                + index;
+    }
+
+    private boolean percent(int percent) {
+        return random.nextInt(100) < percent;
+    }
+
+    private <T> T pick(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    // Enterprise Architect style identifier
+    private String id() {
+        return "EAID_" + new UUID(random.nextLong(), random.nextLong()).toString().toUpperCase().replace('-', '_');
+    }
+
+    private String code() {
+        return "C" + nextCode++;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String lowerCamel(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // "ArmEpoch12" -> "Arm Epoch 12"
+    private static String preferredTerm(String name) {
+        return name.replaceAll("(?<=[a-z])(?=[A-Z0-9])", " ");
+    }
+
+    private static String definition(String name) {
+        return String.format("Synthetic definition of %1$s.", preferredTerm(name).toLowerCase());
+    }
+
+    /**
+     * Writes the release into folder, creating it if needed
+     */
+    public void write(Path folder) throws IOException {
+        Files.createDirectories(folder.resolve(GeneratorApp.CURR_RELEASE_FOLDER_NAME));
+        Files.createDirectories(folder.resolve(GeneratorApp.PREV_RELEASE_FOLDER_NAME));
+        writeXmi(folder.resolve(GeneratorApp.CURR_RELEASE_FOLDER_NAME + GeneratorApp.XML_FILE_NAME), true);
+        writeXmi(folder.resolve(GeneratorApp.PREV_RELEASE_FOLDER_NAME + GeneratorApp.XML_FILE_NAME), false);
+        writeCpt(folder.resolve(GeneratorApp.CPT_FILE_NAME));
+        writeApi(folder.resolve(GeneratorApp.API_FILE_NAME));
+        writeCardinalities(folder.resolve(GeneratorApp.CARDINALITY_JSON_FILE_NAME));
+        logger.info(String.format("Wrote a synthetic release of %1$d classes to %2$s", classes.size(), folder));
+    }
+
+    private boolean in(SyntheticClass modelClass, boolean current) {
+        return current || !modelClass.isNew;
+    }
+
+    /**
+     * Writes the UML XMI as Enterprise Architect does, one element per line, as
+     * UsdmParser expects
+     */
+    void writeXmi(Path file, boolean current) throws IOException {
+        Set<String> primitiveTypes = new TreeSet<>();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("<?xml version='1.0' encoding='UTF-8' ?>\n");
+            out.write("<xmi:XMI xmlns:xmi=\"http://www.omg.org/spec/XMI/20131001\""
+                    + " xmlns:uml=\"http://www.omg.org/spec/UML/20161101\">\n");
+            out.write("\t<xmi:Documentation exporter=\"Enterprise Architect\" exporterVersion=\"6.5\"/>\n");
+            out.write("\t<uml:Model xmi:type=\"uml:Model\" name=\"EA_Model\">\n");
+            out.write("\t\t<packagedElement xmi:type=\"uml:Package\" xmi:id=\"EAPK_SYNTHETIC\" name=\"model\">\n");
+            for (SyntheticClass modelClass : classes) {
+                if (!in(modelClass, current)) {
+                    continue;
+                }
+                out.write(String.format("\t\t\t<packagedElement xmi:type=\"uml:Class\" xmi:id=\"%1$s\" name=\"%2$s\"%3$s>\n",
+                        modelClass.id, modelClass.name, modelClass.isAbstract ? " isAbstract=\"true\"" : ""));
+                for (SyntheticAttribute attribute : modelClass.attributes) {
+                    if (!attribute.in(current)) {
+                        continue;
+                    }
+                    String typeId = "EAJava_" + attribute.umlType().replaceAll("[<>]", "_");
+                    primitiveTypes.add(typeId + "\t" + attribute.umlType());
+                    out.write(String.format("\t\t\t\t<ownedAttribute xmi:type=\"uml:Property\" xmi:id=\"%1$s\" name=\"%2$s\" visibility=\"private\">\n",
+                            attribute.id, attribute.name));
+                    out.write(String.format("\t\t\t\t\t<lowerValue xmi:type=\"uml:LiteralInteger\" value=\"%1$s\"/>\n",
+                            attribute.list ? "0" : "1"));
+                    out.write(String.format("\t\t\t\t\t<upperValue xmi:type=\"uml:LiteralUnlimitedNatural\" value=\"%1$s\"/>\n",
+                            attribute.list ? "*" : "1"));
+                    out.write(String.format("\t\t\t\t\t<type xmi:idref=\"%1$s\"/>\n", typeId));
+                    out.write("\t\t\t\t</ownedAttribute>\n");
+                }
+                if (modelClass.parent != null) {
+                    out.write(String.format("\t\t\t\t<generalization xmi:type=\"uml:Generalization\" xmi:id=\"%1$s\" general=\"%2$s\" isSubstitutable=\"true\"/>\n",
+                            modelClass.generalizationId, modelClass.parent.id));
+                }
+                out.write("\t\t\t</packagedElement>\n");
+            }
+            out.write("\t\t</packagedElement>\n");
+            out.write("\t</uml:Model>\n");
+            out.write("\t<xmi:Extension extender=\"Enterprise Architect\" extenderID=\"6.5\">\n");
+            out.write("\t\t<elements>\n");
+            for (SyntheticClass modelClass : classes) {
+                if (in(modelClass, current)) {
+                    writeElement(out, modelClass, current);
+                }
+            }
+            out.write("\t\t</elements>\n");
+            out.write("\t\t<connectors>\n");
+            for (SyntheticClass modelClass : classes) {
+                for (SyntheticAttribute attribute : modelClass.attributes) {
+                    if (in(modelClass, current) && attribute.target != null && attribute.in(current)) {
+                        writeConnector(out, attribute);
+                    }
+                }
+            }
+            out.write("\t\t</connectors>\n");
+            out.write("\t\t<primitivetypes>\n");
+            out.write("\t\t\t<packagedElement xmi:type=\"uml:Package\" xmi:id=\"EAJavaTypesPackage\" name=\"EA_Java_Types_Package\">\n");
+            for (String primitiveType : primitiveTypes) {
+                String[] idAndName = primitiveType.split("\t");
+                out.write(String.format("\t\t\t\t<packagedElement xmi:type=\"uml:PrimitiveType\" xmi:id=\"%1$s\" name=\"%2$s\"/>\n",
+                        idAndName[0], escape(idAndName[1])));
+            }
+            out.write("\t\t\t</packagedElement>\n");
+            out.write("\t\t</primitivetypes>\n");
+            out.write("\t</xmi:Extension>\n");
+            out.write("</xmi:XMI>\n");
+        }
+    }
+
+    private void writeElement(Writer out, SyntheticClass modelClass, boolean current) throws IOException {
+        out.write(String.format("\t\t\t<element xmi:idref=\"%1$s\" xmi:type=\"uml:Class\" name=\"%2$s\" scope=\"public\">\n",
+                modelClass.id, modelClass.name));
+        out.write("\t\t\t\t<model package=\"EAPK_SYNTHETIC\" ea_eleType=\"element\"/>\n");
+        out.write(String.format("\t\t\t\t<properties documentation=\"%1$s\" sType=\"Class\" isAbstract=\"%2$s\"/>\n",
+                definition(modelClass.name), modelClass.isAbstract));
+        out.write("\t\t\t\t<attributes>\n");
+        int position = 0;
+        for (SyntheticAttribute attribute : modelClass.attributes) {
+            if (!attribute.in(current)) {
+                continue;
+            }
+            out.write(String.format("\t\t\t\t\t<attribute xmi:idref=\"%1$s\" name=\"%2$s\" scope=\"Private\">\n",
+                    attribute.id, attribute.name));
+            out.write("\t\t\t\t\t\t<initial/>\n");
+            out.write(String.format("\t\t\t\t\t\t<documentation value=\"%1$s\"/>\n", definition(attribute.name)));
+            out.write(String.format("\t\t\t\t\t\t<model ea_guid=\"{%1$s}\"/>\n", attribute.id.substring(5)));
+            out.write(String.format("\t\t\t\t\t\t<properties type=\"%1$s\" collection=\"%2$s\" changeability=\"changeable\"/>\n",
+                    escape(attribute.umlType()), attribute.list));
+            out.write(String.format("\t\t\t\t\t\t<containment containment=\"Not Specified\" position=\"%1$d\"/>\n",
+                    position++));
+            out.write(String.format("\t\t\t\t\t\t<bounds lower=\"%1$s\" upper=\"%2$s\"/>\n", attribute.list ? "0" : "1",
+                    attribute.list ? "*" : "1"));
+            out.write("\t\t\t\t\t</attribute>\n");
+        }
+        out.write("\t\t\t\t</attributes>\n");
+        out.write("\t\t\t</element>\n");
+    }
+
+    private void writeConnector(Writer out, SyntheticAttribute attribute) throws IOException {
+        out.write(String.format("\t\t\t<connector xmi:idref=\"%1$s\">\n", attribute.connectorId));
+        out.write(String.format("\t\t\t\t<source xmi:idref=\"%1$s\">\n", attribute.owner.id));
+        out.write(String.format("\t\t\t\t\t<model type=\"Class\" name=\"%1$s\"/>\n", attribute.owner.name));
+        out.write("\t\t\t\t\t<role visibility=\"Public\" targetScope=\"instance\"/>\n");
+        out.write(String.format("\t\t\t\t\t<type aggregation=\"%1$s\" containment=\"Unspecified\"/>\n",
+                attribute.containment ? "composite" : "none"));
+        out.write("\t\t\t\t</source>\n");
+        out.write(String.format("\t\t\t\t<target xmi:idref=\"%1$s\">\n", attribute.target.id));
+        out.write(String.format("\t\t\t\t\t<model type=\"Class\" name=\"%1$s\"/>\n", attribute.target.name));
+        out.write(String.format("\t\t\t\t\t<role name=\"%1$s\" visibility=\"Private\" targetScope=\"instance\"/>\n",
+                attribute.name));
+        out.write(String.format("\t\t\t\t\t<type multiplicity=\"%1$s\" aggregation=\"none\" type=\"%2$s\" containment=\"Unspecified\"/>\n",
+                attribute.multiplicity(), escape(attribute.umlType())));
+        out.write("\t\t\t\t</target>\n");
+        out.write("\t\t\t\t<properties ea_type=\"Association\" direction=\"Source -&gt; Destination\"/>\n");
+        out.write("\t\t\t</connector>\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Writes the CT spreadsheet of the current release, with an Entity row per
+     * class followed by a row per attribute, inherited ones included
+     */
+    void writeCpt(Path file) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("DDF Entities&Attributes");
+            int rowNumber = 0;
+            cptRow(sheet, rowNumber, "Row Number", "Entity Name", "Role", "Inherited From",
+                    "Logical Data Model Name", "NCI C-Code", "CT Item Preferred Name", "Synonym(s)", "Definition",
+                    "Has Value List", "Codelist URL");
+            for (SyntheticClass modelClass : classes) {
+                cptRow(sheet, ++rowNumber, String.valueOf(rowNumber), modelClass.name, CptIndex.ENTITY_ROLE, "", "",
+                        modelClass.nciCode, preferredTerm(modelClass.name), "", definition(modelClass.name), "", "");
+                for (SyntheticAttribute attribute : modelClass.allAttributes()) {
+                    if (!attribute.in(true)) {
+                        continue;
+                    }
+                    cptRow(sheet, ++rowNumber, String.valueOf(rowNumber), modelClass.name,
+                            attribute.target == null ? "Attribute" : "Relationship",
+                            attribute.owner == modelClass ? "" : attribute.owner.name, attribute.name,
+                            attribute.nciCode, preferredTerm(attribute.name), "", definition(attribute.name),
+                            attribute.codeList == null ? "N" : "Y " + attribute.codeList,
+                            attribute.codeList == null ? ""
+                                    : "https://evsexplore.semantics.cancer.gov/evsexplore/concept/ncit/"
+                                            + attribute.codeList);
+                }
+            }
+            workbook.write(out);
+        }
+    }
+
+    private static void cptRow(Sheet sheet, int rowNumber, String... cells) {
+        Row row = sheet.createRow(rowNumber);
+        for (int i = 0; i < cells.length; i++) {
+            row.createCell(i).setCellValue(cells[i]);
+        }
+    }
+
+    /**
+     * Writes the API document of the current release, with a schema per concrete
+     * class. Contained classes are referenced as in the USDM API, and referenced
+     * ones by id.
+     */
+    void writeApi(Path file) throws IOException {
+        try (JsonWriter json = new JsonWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("openapi").value("3.1.0");
+            json.name("info").beginObject().name("title").value("Synthetic USDM").endObject();
+            json.name("paths").beginObject().endObject();
+            json.name("components").beginObject().name("schemas").beginObject();
+            for (SyntheticClass modelClass : classes) {
+                if (!modelClass.isAbstract) {
+                    writeSchema(json, modelClass);
+                }
+            }
+            json.endObject().endObject();
+            json.endObject();
+        }
+    }
+
+    private void writeSchema(JsonWriter json, SyntheticClass modelClass) throws IOException {
+        json.name(modelClass.name.equals(ROOT_CLASS) ? ROOT_CLASS + "-Output" : modelClass.name).beginObject();
+        json.name("title").value(modelClass.name);
+        json.name("type").value("object");
+        json.name("properties").beginObject();
+        for (SyntheticAttribute attribute : modelClass.allAttributes()) {
+            if (!attribute.in(true)) {
+                continue;
+            }
+            if (attribute.target == null) {
+                json.name(attribute.name).beginObject().name("type")
+                        .value(attribute.type.equals("String") ? "string"
+                                : attribute.type.equals("int") ? "integer" : attribute.type)
+                        .endObject();
+            } else if (attribute.containment && attribute.list) {
+                json.name(attribute.name).beginObject().name("type").value("array").name("items").beginObject()
+                        .name("$ref").value("#/components/schemas/" + attribute.type).endObject().endObject();
+            } else if (attribute.containment) {
+                json.name(attribute.name).beginObject().name("anyOf").beginArray().beginObject().name("$ref")
+                        .value("#/components/schemas/" + attribute.type).endObject().beginObject().name("type")
+                        .value("null").endObject().endArray().endObject();
+            } else if (attribute.list) {
+                json.name(attribute.name.substring(0, attribute.name.length() - 1) + "Ids").beginObject().name("type")
+                        .value("array").name("items").beginObject().name("type").value("string").endObject()
+                        .endObject();
+            } else {
+                json.name(attribute.name + "Id").beginObject().name("anyOf").beginArray().beginObject().name("type")
+                        .value("string").endObject().beginObject().name("type").value("null").endObject()
+                        .endArray().endObject();
+            }
+        }
+        json.name("instanceType").beginObject().name("const").value(modelClass.name).endObject();
+        json.endObject();
+        json.endObject();
+    }
+
+    /**
+     * Writes the cardinalities of the attributes typed by a class
+     */
+    void writeCardinalities(Path file) throws IOException {
+        try (JsonWriter json = new JsonWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            json.setIndent("  ");
+            json.beginObject();
+            for (SyntheticClass modelClass : classes) {
+                List<SyntheticAttribute> links = modelClass.allAttributes().stream()
+                        .filter(attribute -> attribute.target != null && attribute.in(true)).toList();
+                if (!links.isEmpty()) {
+                    json.name(modelClass.name).beginObject().name("cardinalities").beginObject();
+                    for (SyntheticAttribute link : links) {
+                        json.name(link.name).value(link.multiplicity());
+                    }
+                    json.endObject().endObject();
+                }
+            }
+            json.endObject();
+        }
+    }
+}
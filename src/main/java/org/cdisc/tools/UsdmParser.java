@@ -2,26 +2,24 @@ package org.cdisc.tools;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.xml.namespace.NamespaceContext;
-import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamConstants;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-import javax.xml.xpath.*;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -37,11 +35,26 @@ public class UsdmParser {
 
     private static final Logger logger = LoggerFactory.getLogger(UsdmParser.class);
 
+    private static final String CLASSES_EXPR = "//xmi:XMI/uml:Model//packagedElement[@xmi:type='uml:Class']";
+
     private Document document = null;
-    private Set<String> namespaces = null;
+    // prefix -> namespace URI, as found on the elements of the document
+    private Map<String, String> namespaces = null;
+    private String xmiNamespaceUri = null;
+    // Indexes built once after parsing, replacing the per-lookup XPath scans
+    // xmi:id -> packagedElement (first one in document order)
+    private final Map<String, Element> packagedElementsById = new HashMap<>();
+    // xmi:idref -> "attribute" extension element (first one in document order)
+    private final Map<String, Element> attributesByIdref = new HashMap<>();
+    // connector source xmi:idref -> connectors, in document order
+    private final Map<String, List<Element>> connectorsBySource = new HashMap<>();
+    // packagedElement name -> generalization/@general, in document order
+    private final Map<String, List<String>> generalizationsByName = new HashMap<>();
 
     /**
-     * Constructor must be invoked with a valid inputsream of the XMI file
+     * Constructor must be invoked with a valid inputsream of the XMI file. The
+     * stream is parsed once, and the namespaces
+     * are collected while indexing the resulting document.
      * 
      * @param file - Inputstream of UML XMI File
      * @throws ParserConfigurationException
@@ -52,23 +65,94 @@ public class UsdmParser {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
         DocumentBuilder builder = factory.newDocumentBuilder();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        file.transferTo(baos);
-        this.document = builder.parse(new ByteArrayInputStream(baos.toByteArray()));
-        try {
-            this.namespaces = setUpNamespaces(new ByteArrayInputStream(baos.toByteArray()));
-        } catch (XMLStreamException e) {
-            throw new RuntimeException(e);
+        try (StageGraph.Phase phase = StageGraph.phase("parse XMI document")) {
+            this.document = builder.parse(file);
+            phase.elements(this.document.getElementsByTagName("*").getLength());
         }
+        this.namespaces = new HashMap<>();
+        try (StageGraph.Phase phase = StageGraph.phase("scan namespaces and index")) {
+            buildIndexes();
+            phase.elements(packagedElementsById.size());
+        }
+    }
 
+    /**
+     * Memory maps the XMI file, so it is never copied into the heap before
+     * being parsed
+     * 
+     * @param file - Path of UML XMI File
+     * @throws ParserConfigurationException
+     * @throws IOException
+     * @throws SAXException
+     */
+    public UsdmParser(Path file) throws ParserConfigurationException, IOException, SAXException {
+        this(MappedFileInputStream.open(file));
     }
 
-    private String getClassNameFromId(XPath xPath, String classxmlId) throws XPathExpressionException {
-        String exprStr = String.format("//xmi:XMI/uml:Model//packagedElement[@xmi:id='%1$s']/@name",
-                classxmlId);
-        XPathExpression expr = xPath.compile(exprStr);
-        Object result = expr.evaluate(this.document, XPathConstants.STRING);
-        return (String) result;
+    /**
+     * Walks the document once, indexing packagedElements by xmi:id, the
+     * "attribute" extension elements by xmi:idref, the connectors by their
+     * source xmi:idref and the generalizations by the name of their class. The
+     * prefixes of the elements seen on the way are collected as the namespaces
+     * for XPath.
+     */
+    private void buildIndexes() {
+        Element root = this.document.getDocumentElement();
+        this.xmiNamespaceUri = root.getNamespaceURI();
+        indexElement(root, false);
+        logger.debug(String.format(
+                "Indexed %1$d packagedElements, %2$d attributes, %3$d connector sources and %4$d generalizations",
+                packagedElementsById.size(), attributesByIdref.size(), connectorsBySource.size(),
+                generalizationsByName.size()));
+    }
+
+    private void indexElement(Element element, boolean inModel) {
+        String localName = element.getLocalName();
+        if (element.getPrefix() != null && !element.getPrefix().isEmpty()) {
+            namespaces.putIfAbsent(element.getPrefix(), element.getNamespaceURI());
+        }
+        if (element.getNamespaceURI() == null) {
+            if (inModel && localName.equals("packagedElement")) {
+                Attr id = element.getAttributeNodeNS(xmiNamespaceUri, "id");
+                if (id != null) {
+                    packagedElementsById.putIfAbsent(id.getValue(), element);
+                }
+            } else if (inModel && localName.equals("generalization") && element.hasAttribute("general")
+                    && element.getParentNode() instanceof Element parent
+                    && "packagedElement".equals(parent.getLocalName()) && parent.hasAttribute("name")) {
+                generalizationsByName.computeIfAbsent(parent.getAttribute("name"), k -> new ArrayList<>())
+                        .add(element.getAttribute("general"));
+            } else if (localName.equals("attribute")) {
+                Attr idref = element.getAttributeNodeNS(xmiNamespaceUri, "idref");
+                if (idref != null) {
+                    attributesByIdref.putIfAbsent(idref.getValue(), element);
+                }
+            } else if (localName.equals("connector") && element.getParentNode() instanceof Element parent
+                    && "connectors".equals(parent.getLocalName())) {
+                Set<String> sources = new HashSet<>();
+                for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child instanceof Element source && "source".equals(source.getLocalName())) {
+                        Attr idref = source.getAttributeNodeNS(xmiNamespaceUri, "idref");
+                        if (idref != null && sources.add(idref.getValue())) {
+                            connectorsBySource.computeIfAbsent(idref.getValue(), k -> new ArrayList<>())
+                                    .add(element);
+                        }
+                    }
+                }
+            }
+        }
+        boolean childrenInModel = inModel || (localName.equals("Model") && "uml".equals(element.getPrefix())
+                && element.getParentNode() == this.document.getDocumentElement());
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                indexElement(childElement, childrenInModel);
+            }
+        }
+    }
+
+    private String getClassNameFromId(String classxmlId) {
+        Element packagedElement = packagedElementsById.get(classxmlId);
+        return packagedElement == null ? "" : packagedElement.getAttribute("name");
     }
 
     /**
@@ -79,38 +163,21 @@ public class UsdmParser {
      */
     public void loadFromUsdmXmi(Map<String, ModelClass> elements) throws XPathExpressionException {
         logger.debug("ENTER - loadFromUsdmXmi");
-        XPath xPath = setUpPath();
-        XPathExpression expr = xPath.compile("//xmi:XMI/uml:Model//packagedElement[@xmi:type='uml:Class']");
-        // XPathExpression expr = xPath.compile("//*[local-name()='uml:Class']");
-
-        Object result = expr.evaluate(document, XPathConstants.NODESET);
+        Object result = newXPath().evaluate(CLASSES_EXPR, document, XPathConstants.NODESET);
         NodeList nodes = (NodeList) result;
         if (nodes.getLength() > 0) {
             logger.debug("Total Classes Found: " + nodes.getLength());
+            List<String[]> classes = new ArrayList<>();
             for (int i = 0; i < nodes.getLength(); i++) {
                 Node currentItem = nodes.item(i);
-                Map<String, ModelClassProperty> properties = new LinkedHashMap<>();
-                String className = currentItem.getAttributes().getNamedItem("name").getNodeValue();
-                String classxmlId = currentItem.getAttributes().getNamedItem("xmi:id").getNodeValue();
-                elements.put(className, new ModelClass(className, properties, null));
-
-                String inheritanceExprStr = String.format("//xmi:XMI/uml:Model//packagedElement[@name='%1$s']/" +
-                        "generalization/@general", className);
-                XPathExpression inheritanceExpr = xPath.compile(inheritanceExprStr);
-                NodeList inheritanceResult = (NodeList) inheritanceExpr.evaluate(this.document, XPathConstants.NODESET);
-                for (int j = 0; j < inheritanceResult.getLength(); j++) {
-                    setProperties(xPath, properties, inheritanceResult.item(j).getNodeValue(), className);
-                    populateLinks(xPath, elements, inheritanceResult.item(j).getNodeValue(), className);
-                    elements.get(className).getSuperClasses()
-                            .add(getClassNameFromId(xPath, inheritanceResult.item(j).getNodeValue()));
-                }
-                setProperties(xPath, properties, classxmlId, className);
-                populateLinks(xPath, elements, classxmlId, className);
+                classes.add(new String[] { currentItem.getAttributes().getNamedItem("xmi:id").getNodeValue(),
+                        currentItem.getAttributes().getNamedItem("name").getNodeValue() });
             }
-            for (Map.Entry<String, ModelClass> entry : elements.entrySet()) {
-                for (String superClass : entry.getValue().getSuperClasses()) {
-                    elements.get(superClass).getSubClasses().add(entry.getKey());
-                }
+            try (StageGraph.Phase phase = StageGraph.phase("build classes")) {
+                new InheritanceGraph(this::getClassNameFromId,
+                        name -> generalizationsByName.getOrDefault(name, List.of()), this::getOwnMembers)
+                        .populate(elements, classes);
+                phase.elements(classes.size());
             }
         } else {
             logger.warn(String.format("%1$s: No elements found", document.getDocumentURI()));
@@ -118,49 +185,74 @@ public class UsdmParser {
         logger.debug("LEAVE - loadFromUsdmXmi");
     }
 
-    private void setProperties(XPath xPath, Map<String, ModelClassProperty> properties, String classxmlId,
-            String className)
-            throws XPathExpressionException {
-        String immediateClass = getClassNameFromId(xPath, classxmlId);
-        String propertyExprStr = String.format("//xmi:XMI/uml:Model//packagedElement[@xmi:id='%1$s']/" +
-                "ownedAttribute[@xmi:type='uml:Property' and @name]", classxmlId);
-        XPathExpression propertyExpr = xPath.compile(propertyExprStr);
-        Object propsResult = propertyExpr.evaluate(this.document, XPathConstants.NODESET);
-        NodeList propsNodes = (NodeList) propsResult;
-        logger.debug("Total Properties Found: " + propsNodes.getLength());
-        for (int j = 0; j < propsNodes.getLength(); j++) {
-            Node currentProp = propsNodes.item(j);
+    /**
+     * XPath resolving prefixes from an immutable copy of the namespaces found
+     * while indexing. Only CLASSES_EXPR is evaluated, the other lookups use the
+     * indexes.
+     */
+    private XPath newXPath() {
+        Map<String, String> uris = Map.copyOf(this.namespaces);
+        XPath xPath = XPathFactory.newInstance().newXPath();
+        xPath.setNamespaceContext(new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                return uris.get(prefix);
+            }
+
+            public Iterator<String> getPrefixes(String val) {
+                return null;
+            }
+
+            public String getPrefix(String uri) {
+                return null;
+            }
+        });
+        return xPath;
+    }
+
+    private List<Element> getOwnedProperties(String classxmlId) {
+        List<Element> ownedProperties = new ArrayList<>();
+        Element packagedElement = packagedElementsById.get(classxmlId);
+        if (packagedElement != null) {
+            for (Node child = packagedElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child instanceof Element ownedAttribute && child.getNamespaceURI() == null
+                        && "ownedAttribute".equals(child.getLocalName())
+                        && "uml:Property".equals(ownedAttribute.getAttributeNS(xmiNamespaceUri, "type"))
+                        && ownedAttribute.hasAttribute("name")) {
+                    ownedProperties.add(ownedAttribute);
+                }
+            }
+        }
+        return ownedProperties;
+    }
+
+    /**
+     * @return the attributes then the links declared by a class
+     */
+    private List<InheritanceGraph.Member> getOwnMembers(String classxmlId) {
+        String immediateClass = getClassNameFromId(classxmlId);
+        List<InheritanceGraph.Member> members = new ArrayList<>();
+        List<Element> propsNodes = getOwnedProperties(classxmlId);
+        logger.debug("Total Properties Found: " + propsNodes.size());
+        for (Element currentProp : propsNodes) {
             String propName = currentProp.getAttributes().getNamedItem("name").getNodeValue();
             logger.debug(String.format("Pulling propertyAttributes for %1$s", propName));
             String propId = currentProp.getAttributes().getNamedItem("xmi:id").getNodeValue();
-            String propertyTypeExprStr = String.format("//attribute[@xmi:idref='%1$s']", propId);
-            XPathExpression propertyTypeExpr = xPath.compile(propertyTypeExprStr);
-            Object propTypesResult = propertyTypeExpr.evaluate(this.document, XPathConstants.NODESET);
-            NodeList propTypesNodes = (NodeList) propTypesResult;
-            if (propTypesNodes.getLength() == 0) {
+            Element propTypeNode = attributesByIdref.get(propId);
+            if (propTypeNode == null) {
                 logger.warn(String.format("Ignoring duplicate property in UML XMI: %1$s", propName));
-            } else if (!properties.containsKey(propName)) {
-                String propType = propTypesNodes.item(0).getChildNodes()
+            } else {
+                String propType = propTypeNode.getChildNodes()
                         .item(7).getAttributes().getNamedItem("type").getNodeValue();
                 logger.debug(String.format("Found propType %1$s for %2$s", propType, propName));
-                properties.put(propName, new ModelClassProperty(propName, propType, null, null,
-                        className == immediateClass ? null : immediateClass, null));
+                members.add(new InheritanceGraph.Member(false, propName, propType, null, immediateClass));
             }
         }
-    }
-
-    private void populateLinks(XPath xPath, Map<String, ModelClass> elements, String classxmlId, String className)
-            throws XPathExpressionException {
         // ---- Populate links
-        String immediateClass = getClassNameFromId(xPath, classxmlId);
         // This gets all the connectors whenever this class is stated as source
-        String linkStrExpr = String.format("//connectors/connector/source[@xmi:idref='%1$s']/..", classxmlId);
-        XPathExpression linksExpr = xPath.compile(linkStrExpr);
-        Object connectorResults = linksExpr.evaluate(document, XPathConstants.NODESET);
-        NodeList connectorNodes = (NodeList) connectorResults;
+        List<Element> connectorNodes = connectorsBySource.getOrDefault(classxmlId, List.of());
         // For each connector, pull target
-        for (int k = 0; k < connectorNodes.getLength(); k++) {
-            Element currentConnector = (Element) connectorNodes.item(k);
+        for (Element currentConnector : connectorNodes) {
             Node linkPropRef = currentConnector.getAttributeNode("name");
             if (linkPropRef != null) {
                 String propName = linkPropRef.getNodeValue();
@@ -168,63 +260,11 @@ public class UsdmParser {
                         .getElementsByTagName("model").item(0)).getAttribute("name");
                 Node multiplicityRef = currentConnector.getChildNodes().item(3)
                         .getChildNodes().item(5).getAttributes().getNamedItem("multiplicity");
-                if (elements.get(className).getProperties().containsKey(propName)) {
-                    ModelClassProperty linkedProp = elements.get(className).getProperties().get(propName);
-                    linkedProp.addType(propType);
-                    assert linkedProp.getMultiplicity().equals(multiplicityRef.getNodeValue());
-                } else {
-                    ModelClassProperty linkedProp = new ModelClassProperty(propName, propType, null, null,
-                            className == immediateClass ? null : immediateClass,
-                            multiplicityRef != null ? multiplicityRef.getNodeValue() : null);
-                    elements.get(className).getProperties().put(propName, linkedProp);
-                }
-
+                members.add(new InheritanceGraph.Member(true, propName, propType,
+                        multiplicityRef != null ? multiplicityRef.getNodeValue() : null, immediateClass));
                 logger.debug(linkPropRef.getNodeValue());
             }
-
-        }
-    }
-
-    private XPath setUpPath() {
-        XPath xPath = XPathFactory.newInstance().newXPath();
-        xPath.setNamespaceContext(new NamespaceContext() {
-            @Override
-            public String getNamespaceURI(String prefix) {
-                Map<String, String> uris = new HashMap<>();
-                List<String[]> names = namespaces.stream().map(item -> item.split(", ")).toList();
-                for (String[] name : names) {
-                    uris.put(name[1].trim(), name[2].trim());
-                }
-                String result = uris.getOrDefault(prefix, null);
-                return result;
-            }
-
-            public Iterator<String> getPrefixes(String val) {
-                return null;
-            }
-
-            public String getPrefix(String uri) {
-                return null;
-            }
-        });
-        return xPath;
-    }
-
-    private Set<String> setUpNamespaces(InputStream file) throws XMLStreamException {
-        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-        XMLStreamReader reader = inputFactory.createXMLStreamReader(file);
-        Set<String> namespaces = new HashSet<>();
-        while (reader.hasNext()) {
-            int evt = reader.next();
-            if (evt == XMLStreamConstants.START_ELEMENT) {
-                QName qName = reader.getName();
-                if (qName != null) {
-                    if (qName.getPrefix() != null && qName.getPrefix().compareTo("") != 0)
-                        namespaces.add(String.format("%s, %s, %s",
-                                qName.getLocalPart(), qName.getPrefix(), qName.getNamespaceURI()));
-                }
-            }
         }
-        return namespaces;
+        return members;
     }
 }
@@ -0,0 +1,249 @@
+package org.cdisc.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * USDM StAX Parser - Alternative to UsdmParser that reads the UML XMI in a
+ * single streaming pass.
+ * Instead of evaluating an XPath expression against the whole DOM for every
+ * class, generalization and property, the
+ * packaged elements, the "attribute" extension elements and the connectors are
+ * collected into hash indexes while
+ * reading, and the ModelClass instances are then assembled from those indexes
+ * in linear time.
+ * The resulting map is meant to be identical to the one produced by
+ * UsdmParser.loadFromUsdmXmi.
+ */
+public class UsdmStaxParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsdmStaxParser.class);
+
+    private static final String UML_CLASS = "uml:Class";
+    private static final String UML_PROPERTY = "uml:Property";
+
+    private static class OwnedAttribute {
+        private final String id;
+        private final String name;
+
+        private OwnedAttribute(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class Connector {
+        private String name;
+        private String targetName;
+        private String multiplicity;
+    }
+
+    // Classes in document order as <xmi:id, name>
+    private final List<String[]> classes = new ArrayList<>();
+    // xmi:id -> name of the first packagedElement with that id
+    private final Map<String, String> namesById = new HashMap<>();
+    // xmi:id -> ownedAttributes (uml:Property with a name) of the packagedElement
+    private final Map<String, List<OwnedAttribute>> ownedAttributesById = new HashMap<>();
+    // packagedElement name -> generalization/@general
+    private final Map<String, List<String>> generalizationsByName = new HashMap<>();
+    // xmi:idref -> type of the first "attribute" extension element
+    private final Map<String, String> attributeTypesById = new HashMap<>();
+    // source xmi:idref -> connectors, in document order
+    private final Map<String, List<Connector>> connectorsBySource = new HashMap<>();
+
+    /**
+     * Constructor must be invoked with a valid inputsream of the XMI file. The
+     * whole file is read once here.
+     *
+     * @param file - Inputstream of UML XMI File
+     * @throws XMLStreamException
+     */
+    public UsdmStaxParser(InputStream file) throws XMLStreamException {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(file);
+        // Namespaces are resolved in the same pass
+        try (StageGraph.Phase phase = StageGraph.phase("read XMI")) {
+            readDocument(reader);
+            phase.elements(classes.size());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Memory maps the XMI file, so it is never copied into the heap before
+     * being read
+     *
+     * @param file - Path of UML XMI File
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public UsdmStaxParser(Path file) throws IOException, XMLStreamException {
+        this(MappedFileInputStream.open(file));
+    }
+
+    private void readDocument(XMLStreamReader reader) throws XMLStreamException {
+        String xmiUri = null;
+        int modelDepth = -1;
+        int depth = 0;
+        // One entry per open packagedElement, holding its xmi:id and name
+        Deque<String[]> packagedElements = new ArrayDeque<>();
+        Deque<Integer> packagedElementDepths = new ArrayDeque<>();
+        // Extension "attribute" currently being read
+        String attributeId = null;
+        int attributeDepth = -1;
+        // Connector currently being read
+        Connector connector = null;
+        String connectorSource = null;
+        int connectorDepth = -1;
+        boolean inConnectors = false;
+        boolean inTarget = false;
+        int targetDepth = -1;
+
+        while (reader.hasNext()) {
+            int evt = reader.next();
+            if (evt == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String localName = reader.getLocalName();
+                String prefix = reader.getPrefix();
+                boolean unqualified = prefix == null || prefix.isEmpty();
+                if (depth == 1) {
+                    xmiUri = reader.getNamespaceURI();
+                } else if (depth == 2 && localName.equals("Model") && "uml".equals(prefix)) {
+                    modelDepth = depth;
+                } else if (modelDepth > 0 && unqualified && localName.equals("packagedElement")) {
+                    String id = reader.getAttributeValue(xmiUri, "id");
+                    String name = reader.getAttributeValue(null, "name");
+                    packagedElements.push(new String[] { id, name });
+                    packagedElementDepths.push(depth);
+                    if (id != null && name != null) {
+                        namesById.putIfAbsent(id, name);
+                    }
+                    if (UML_CLASS.equals(reader.getAttributeValue(xmiUri, "type")) && id != null && name != null) {
+                        classes.add(new String[] { id, name });
+                    }
+                } else if (!packagedElements.isEmpty() && depth == packagedElementDepths.peek() + 1
+                        && unqualified) {
+                    String[] owner = packagedElements.peek();
+                    if (localName.equals("ownedAttribute")) {
+                        String name = reader.getAttributeValue(null, "name");
+                        if (owner[0] != null && name != null
+                                && UML_PROPERTY.equals(reader.getAttributeValue(xmiUri, "type"))) {
+                            ownedAttributesById.computeIfAbsent(owner[0], k -> new ArrayList<>())
+                                    .add(new OwnedAttribute(reader.getAttributeValue(xmiUri, "id"), name));
+                        }
+                    } else if (localName.equals("generalization") && owner[1] != null) {
+                        String general = reader.getAttributeValue(null, "general");
+                        if (general != null) {
+                            generalizationsByName.computeIfAbsent(owner[1], k -> new ArrayList<>()).add(general);
+                        }
+                    }
+                } else if (unqualified && localName.equals("attribute") && attributeId == null) {
+                    String idref = reader.getAttributeValue(xmiUri, "idref");
+                    if (idref != null && !attributeTypesById.containsKey(idref)) {
+                        attributeId = idref;
+                        attributeDepth = depth;
+                        attributeTypesById.put(idref, null);
+                    }
+                } else if (attributeId != null && depth == attributeDepth + 1 && localName.equals("properties")) {
+                    attributeTypesById.put(attributeId, reader.getAttributeValue(null, "type"));
+                } else if (unqualified && localName.equals("connectors")) {
+                    inConnectors = true;
+                } else if (inConnectors && connector == null && unqualified && localName.equals("connector")) {
+                    connector = new Connector();
+                    connector.name = reader.getAttributeValue(null, "name");
+                    connectorDepth = depth;
+                } else if (connector != null && depth == connectorDepth + 1 && localName.equals("source")) {
+                    connectorSource = reader.getAttributeValue(xmiUri, "idref");
+                } else if (connector != null && localName.equals("target") && !inTarget
+                        && targetDepth < 0) {
+                    inTarget = true;
+                    targetDepth = depth;
+                } else if (inTarget && localName.equals("model") && connector.targetName == null) {
+                    connector.targetName = Objects.requireNonNullElse(reader.getAttributeValue(null, "name"), "");
+                } else if (inTarget && depth == targetDepth + 1 && localName.equals("type")
+                        && connector.multiplicity == null) {
+                    connector.multiplicity = reader.getAttributeValue(null, "multiplicity");
+                }
+            } else if (evt == XMLStreamConstants.END_ELEMENT) {
+                if (!packagedElementDepths.isEmpty() && depth == packagedElementDepths.peek()) {
+                    packagedElements.pop();
+                    packagedElementDepths.pop();
+                } else if (depth == modelDepth) {
+                    modelDepth = -1;
+                } else if (depth == attributeDepth) {
+                    attributeId = null;
+                    attributeDepth = -1;
+                } else if (depth == targetDepth) {
+                    inTarget = false;
+                } else if (connector != null && depth == connectorDepth) {
+                    if (connectorSource != null) {
+                        connectorsBySource.computeIfAbsent(connectorSource, k -> new ArrayList<>()).add(connector);
+                    }
+                    connector = null;
+                    connectorSource = null;
+                    connectorDepth = -1;
+                    targetDepth = -1;
+                } else if (inConnectors && connector == null && reader.getLocalName().equals("connectors")) {
+                    inConnectors = false;
+                }
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Populates ModelClass elements as a map of <"Element Name", "ModelClass>
+     *
+     * @param elements - Will be mutated with results of the parsing process
+     */
+    public void loadFromUsdmXmi(Map<String, ModelClass> elements) {
+        logger.debug("ENTER - loadFromUsdmXmi");
+        if (!classes.isEmpty()) {
+            logger.debug("Total Classes Found: " + classes.size());
+            try (StageGraph.Phase phase = StageGraph.phase("build classes")) {
+                new InheritanceGraph(id -> namesById.getOrDefault(id, ""),
+                        name -> generalizationsByName.getOrDefault(name, List.of()), this::getOwnMembers)
+                        .populate(elements, classes);
+                phase.elements(classes.size());
+            }
+        } else {
+            logger.warn("No elements found");
+        }
+        logger.debug("LEAVE - loadFromUsdmXmi");
+    }
+
+    private List<InheritanceGraph.Member> getOwnMembers(String classxmlId) {
+        String immediateClass = namesById.getOrDefault(classxmlId, "");
+        List<InheritanceGraph.Member> members = new ArrayList<>();
+        List<OwnedAttribute> ownedAttributes = ownedAttributesById.getOrDefault(classxmlId, List.of());
+        logger.debug("Total Properties Found: " + ownedAttributes.size());
+        for (OwnedAttribute ownedAttribute : ownedAttributes) {
+            if (!attributeTypesById.containsKey(ownedAttribute.id)) {
+                logger.warn(String.format("Ignoring duplicate property in UML XMI: %1$s", ownedAttribute.name));
+            } else {
+                String propType = attributeTypesById.get(ownedAttribute.id);
+                logger.debug(String.format("Found propType %1$s for %2$s", propType, ownedAttribute.name));
+                members.add(new InheritanceGraph.Member(false, ownedAttribute.name, propType, null, immediateClass));
+            }
+        }
+        for (Connector connector : connectorsBySource.getOrDefault(classxmlId, List.of())) {
+            if (connector.name != null) {
+                members.add(new InheritanceGraph.Member(true, connector.name,
+                        Objects.requireNonNullElse(connector.targetName, ""), connector.multiplicity,
+                        immediateClass));
+                logger.debug(connector.name);
+            }
+        }
+        return members;
+    }
+}
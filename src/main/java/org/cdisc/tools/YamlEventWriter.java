@@ -0,0 +1,129 @@
+package org.cdisc.tools;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a single YAML document through SnakeYAML's Emitter, one event at a
+ * time, so a large document can be produced piece by piece instead of being
+ * handed to Yaml.dump as a whole.
+ * Strings, maps, collections and arrays are turned into events the way
+ * Yaml.dump represents and serializes them with the same DumperOptions, so
+ * the output is the same.
+ */
+public class YamlEventWriter implements Closeable {
+
+    private static final Pattern MULTILINE_PATTERN = Pattern.compile("\n|\u0085|\u2028|\u2029");
+
+    private final Writer writer;
+    private final DumperOptions options;
+    private final Emitter emitter;
+    private final Resolver resolver = new Resolver();
+
+    public YamlEventWriter(Writer writer, DumperOptions options) throws IOException {
+        this.writer = writer;
+        this.options = options;
+        emitter = new Emitter(writer, options);
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(),
+                options.getTags()));
+    }
+
+    public void startMapping() throws IOException {
+        emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null,
+                options.getDefaultFlowStyle()));
+    }
+
+    public void endMapping() throws IOException {
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    public void startSequence() throws IOException {
+        emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null,
+                options.getDefaultFlowStyle()));
+    }
+
+    public void endSequence() throws IOException {
+        emitter.emit(new SequenceEndEvent(null, null));
+    }
+
+    /**
+     * Writes a String, a Map of them, or a Collection or array of them, nested
+     * to any depth
+     */
+    public void write(Object value) throws IOException {
+        if (value instanceof Map) {
+            startMapping();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                write(entry.getKey());
+                write(entry.getValue());
+            }
+            endMapping();
+        } else if (value instanceof Collection || value instanceof Object[]) {
+            startSequence();
+            for (Object item : value instanceof Object[] ? Arrays.asList((Object[]) value) : (Collection<?>) value) {
+                write(item);
+            }
+            endSequence();
+        } else if (value instanceof String) {
+            scalar((String) value);
+        } else {
+            throw new IllegalArgumentException(String.format("Cannot write %1$s as YAML", value));
+        }
+    }
+
+    private void scalar(String value) throws IOException {
+        Tag tag = Tag.STR;
+        DumperOptions.ScalarStyle style = options.getDefaultScalarStyle();
+        if (options.getNonPrintableStyle() == DumperOptions.NonPrintableStyle.BINARY
+                && !StreamReader.isPrintable(value)) {
+            tag = Tag.BINARY;
+            value = String.valueOf(Base64Coder.encode(value.getBytes(StandardCharsets.UTF_8)));
+            style = DumperOptions.ScalarStyle.LITERAL;
+        }
+        if (options.getDefaultScalarStyle() == DumperOptions.ScalarStyle.PLAIN
+                && MULTILINE_PATTERN.matcher(value).find()) {
+            style = DumperOptions.ScalarStyle.LITERAL;
+        }
+        ImplicitTuple implicit = new ImplicitTuple(tag.equals(resolver.resolve(NodeId.scalar, value, true)),
+                tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
+    }
+
+    /**
+     * Ends the document and closes the underlying writer
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            emitter.emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+            emitter.emit(new StreamEndEvent(null, null));
+        } finally {
+            writer.close();
+        }
+    }
+}
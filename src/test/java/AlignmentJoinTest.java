@@ -0,0 +1,42 @@
+import org.cdisc.tools.AlignmentJoin;
+import org.cdisc.tools.ModelClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AlignmentJoinTest {
+
+    // Class|Attribute|API|CT|UML of each record
+    private static List<String> align(Map<String, ModelClass> api, Map<String, ModelClass> model,
+            Map<String, ModelClass> cpt) {
+        return AlignmentJoin.align(api, model, cpt).stream()
+                .map(record -> List.of("Class", "Attribute", "API", "CT", "\"UML / DD\"").stream()
+                        .map(label -> (String) record.getOrDefault(label, ""))
+                        .collect(Collectors.joining("|")))
+                .toList();
+    }
+
+    @Test
+    public void shouldJoinOnCanonicalKeys() {
+        Map<String, ModelClass> api = TestModels.model("Study.id", "Study.instanceType", "Study.activityIds",
+                "Study.name", "Study.label", "Study.labelId", "Code.code");
+        Map<String, ModelClass> model = TestModels.model("Study.id", "Study.activities", "Study.name",
+                "Study.version", "Alias.code");
+        Map<String, ModelClass> cpt = TestModels.model("Study.activities", "Study.name", "Study.version",
+                "Code.code", "Alias.code");
+
+        assertEquals(List.of(
+                "Alias|||Alias|Alias",
+                "Alias|code||code|code",
+                "Code||Code|Code|",
+                "Code|code|code|code|",
+                // labelId stands for label, seen before it in the API, and is kept
+                "Study|label|labelId||",
+                "Study|version||version|version"),
+                align(api, model, cpt));
+    }
+}
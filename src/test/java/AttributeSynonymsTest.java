@@ -0,0 +1,82 @@
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.cdisc.tools.AttributeSynonyms;
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.UsdmStaxParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AttributeSynonymsTest {
+
+    private static String testFileName = "currentRelease/USDM_UML.xmi";
+
+    // Model attribute names per class, and API properties made up from them:
+    // some under the same name, some as ids, some missing
+    private static final Map<String, List<String>> attributes = new TreeMap<>();
+    private static final Map<String, Map<String, Object>> apiClasses = new TreeMap<>();
+
+    @BeforeAll
+    public static void init() throws Exception {
+        Map<String, ModelClass> model = new TreeMap<>();
+        try (InputStream file = AttributeSynonymsTest.class.getClassLoader().getResourceAsStream(testFileName)) {
+            new UsdmStaxParser(file).loadFromUsdmXmi(model);
+        }
+        for (ModelClass modelClass : model.values()) {
+            List<String> names = new ArrayList<>(modelClass.getProperties().keySet());
+            Map<String, Object> api = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                if (i % 3 == 0) {
+                    api.put(name, Map.of("type", "string"));
+                } else if (i % 3 == 1) {
+                    api.put(name.endsWith("ies") ? name.substring(0, name.length() - 3) + "yIds" : name + "Ids",
+                            Map.of("type", "array"));
+                }
+            }
+            api.put("instanceType", Map.of("const", modelClass.getName()));
+            attributes.put(modelClass.getName(), names);
+            apiClasses.put(modelClass.getName(), api);
+        }
+    }
+
+    // How genStructure used to find an attribute: try each synonym with
+    // JsonPath and catch PathNotFoundException
+    private static String matchWithJsonPath(String name, Map<String, Object> apiProperties) {
+        for (String synonym : AttributeSynonyms.toIds(name)) {
+            try {
+                JsonPath.read(apiProperties, synonym);
+                apiProperties.remove(synonym);
+                return synonym;
+            } catch (PathNotFoundException e) {
+            }
+        }
+        return null;
+    }
+
+    private static List<String> matchAll(BiFunction<String, Map<String, Object>, String> matcher) {
+        List<String> matches = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : attributes.entrySet()) {
+            Map<String, Object> api = new HashMap<>(apiClasses.get(entry.getKey()));
+            for (String name : entry.getValue()) {
+                matches.add(matcher.apply(name, api));
+            }
+            matches.addAll(new TreeMap<>(api).keySet());
+        }
+        return matches;
+    }
+
+    @Test
+    public void shouldMatchLikeJsonPath() {
+        assertEquals(matchAll(AttributeSynonymsTest::matchWithJsonPath), matchAll(AttributeSynonyms::matchAndRemove));
+    }
+}
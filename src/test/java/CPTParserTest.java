@@ -6,6 +6,10 @@ import org.apache.commons.io.input.BOMInputStream;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.xssf.extractor.XSSFEventBasedExcelExtractor;
 import org.apache.xmlbeans.XmlException;
+import org.cdisc.tools.CptIndex;
+import org.cdisc.tools.CptParser;
+import org.cdisc.tools.CptRecord;
+import org.cdisc.tools.ModelClass;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileWriter;
@@ -14,9 +18,15 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
 public class CPTParserTest {
 
     private static String testFileName = "ct-simple.xlsx";
@@ -73,4 +83,21 @@ public class CPTParserTest {
         }
     }
 
+    @Test
+    public void shouldIndexCtRows() throws IOException {
+        CptParser parser = new CptParser("USDM_CT.xlsx");
+        CptIndex index = parser.getIndex();
+        List<Integer> studyRows = index.getEntityRows("Study");
+        assertFalse(studyRows.isEmpty());
+        CptRecord study = index.getRecords().get(studyRows.get(0));
+        assertEquals("Study", study.entityName());
+        assertEquals(CptIndex.ENTITY_ROLE, study.role());
+
+        Map<String, ModelClass> model = Map.of("Study", new ModelClass("Study", new LinkedHashMap<>(), null));
+        assertEquals(studyRows, index.matching(model));
+        parser.populateMapwithCpt(model);
+        assertEquals(study.preferredName(), model.get("Study").getPreferredTerm());
+        assertEquals(study.nciCode(), model.get("Study").getDefNciCode());
+    }
+
 }
@@ -0,0 +1,95 @@
+import org.cdisc.tools.CompactModel;
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.ModelClassProperty;
+import org.cdisc.tools.ModelFingerprint;
+import org.cdisc.tools.ModelFootprint;
+import org.cdisc.tools.UsdmStaxParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactModelTest {
+
+    private static String testFileName = "currentRelease/USDM_UML.xmi";
+    private static final Logger logger = Logger.getLogger(CompactModelTest.class.getName());
+
+    // The release XMI loaded copies times over, as one model with copies times
+    // the classes
+    private static Map<String, ModelClass> load(int copies) throws Exception {
+        Map<String, ModelClass> model = new TreeMap<>();
+        for (int i = 0; i < copies; i++) {
+            Map<String, ModelClass> copy = new TreeMap<>();
+            try (InputStream file = CompactModelTest.class.getClassLoader().getResourceAsStream(testFileName)) {
+                new UsdmStaxParser(file).loadFromUsdmXmi(copy);
+            }
+            for (Map.Entry<String, ModelClass> entry : copy.entrySet()) {
+                model.put(entry.getKey() + i, entry.getValue());
+            }
+        }
+        return model;
+    }
+
+    @Test
+    public void shouldKeepContentAndOrder() throws Exception {
+        Map<String, ModelClass> loose = load(1);
+        ModelFingerprint before = ModelFingerprint.of(loose);
+        List<String> order = new ArrayList<>();
+        loose.forEach((name, modelClass) -> modelClass.getProperties().keySet()
+                .forEach(property -> order.add(name + "." + property)));
+
+        Map<String, ModelClass> compact = CompactModel.freeze(loose);
+        ModelFingerprint after = ModelFingerprint.of(compact);
+        List<String> compactOrder = new ArrayList<>();
+        compact.forEach((name, modelClass) -> modelClass.getProperties().keySet()
+                .forEach(property -> compactOrder.add(name + "." + property)));
+
+        assertEquals(order, compactOrder);
+        assertEquals(loose.keySet(), compact.keySet());
+        for (String name : loose.keySet()) {
+            assertEquals(before.getClassHash(name), after.getClassHash(name));
+            for (String property : compact.get(name).getProperties().keySet()) {
+                assertEquals(before.getPropertyHash(name, property), after.getPropertyHash(name, property));
+                assertTrue(compact.get(name).getProperties().containsKey(property));
+            }
+        }
+        assertNull(compact.get("NoSuchClass"));
+    }
+
+    @Test
+    public void shouldRejectChangesOnceFrozen() throws Exception {
+        Map<String, ModelClass> compact = CompactModel.freeze(load(1));
+        ModelClass study = compact.get("Study0");
+        ModelClassProperty property = study.getProperties().values().iterator().next();
+
+        assertThrows(IllegalStateException.class, () -> study.setDefinition("changed"));
+        assertThrows(IllegalStateException.class, () -> property.setMultiplicity("0..*"));
+        assertThrows(IllegalStateException.class, () -> property.addType("string"));
+        assertThrows(UnsupportedOperationException.class, () -> study.getProperties().remove(property.getName()));
+        assertThrows(UnsupportedOperationException.class, () -> study.getSubClasses().add("Other"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.put("Other", study));
+    }
+
+    @Test
+    public void shouldShrinkScaledModel() throws Exception {
+        Map<String, ModelClass> loose = load(20);
+        ModelFootprint looseFootprint = ModelFootprint.of(loose);
+        ModelFootprint compactFootprint = ModelFootprint.of(CompactModel.freeze(loose));
+        logger.info(String.format("Loose: %1$s", looseFootprint));
+        logger.info(String.format("Compact: %1$s", compactFootprint));
+
+        assertEquals(looseFootprint.properties(), compactFootprint.properties());
+        // Interning shares the strings of all the copies
+        assertTrue(compactFootprint.strings() * 10 < looseFootprint.strings());
+        assertTrue(compactFootprint.bytes() * 2 < looseFootprint.bytes());
+    }
+}
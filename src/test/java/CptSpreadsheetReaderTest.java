@@ -0,0 +1,51 @@
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.cdisc.tools.CptRecord;
+import org.cdisc.tools.CptSpreadsheetReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CptSpreadsheetReaderTest {
+
+    private static String testFileName = "USDM_CT.xlsx";
+
+    private static URL spreadsheet() {
+        return CptSpreadsheetReaderTest.class.getClassLoader().getResource(testFileName);
+    }
+
+    @Test
+    public void shouldReadCellsByColumn() throws Exception {
+        List<CptRecord> records = new CptSpreadsheetReader(spreadsheet()).readAll();
+        List<List<String>> expected = new ArrayList<>();
+        DataFormatter formatter = new DataFormatter();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new File(spreadsheet().toURI()))) {
+            for (Sheet sheet : workbook) {
+                for (Row row : sheet) {
+                    List<String> cells = new ArrayList<>();
+                    for (int i = 0; i < row.getLastCellNum(); i++) {
+                        Cell cell = row.getCell(i);
+                        cells.add(cell == null ? "" : formatter.formatCellValue(cell));
+                    }
+                    while (!cells.isEmpty() && cells.get(cells.size() - 1).isEmpty()) {
+                        cells.remove(cells.size() - 1);
+                    }
+                    expected.add(cells);
+                }
+            }
+        }
+        assertEquals(expected, records.stream().map(CptRecord::cells).collect(Collectors.toList()));
+        CptRecord header = records.get(0);
+        assertEquals("Entity Name", header.entityName());
+        assertEquals("Role", header.role());
+    }
+}
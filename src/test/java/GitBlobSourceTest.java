@@ -0,0 +1,86 @@
+import org.cdisc.tools.GitBlobSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class GitBlobSourceTest {
+
+    @TempDir
+    static Path repository;
+
+    private static void git(String... arguments) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-C", repository.toString(), "-c", "user.name=test",
+                "-c", "user.email=test@example.com", "-c", "commit.gpgsign=false"));
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        process.getInputStream().readAllBytes();
+        assertEquals(0, process.waitFor(), String.join(" ", command));
+    }
+
+    private static void commit(String xmi, String message) throws Exception {
+        Path file = repository.resolve(GitBlobSource.XMI_PATH);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, xmi);
+        Files.writeString(repository.resolve("README.md"), message);
+        git("add", ".");
+        git("commit", "-q", "-m", message);
+    }
+
+    @BeforeAll
+    public static void init() throws Exception {
+        boolean hasGit;
+        try {
+            hasGit = new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (IOException e) {
+            hasGit = false;
+        }
+        assumeTrue(hasGit, "git is not installed");
+        git("init", "-q");
+        commit("<xmi version=\"1\"/>", "first");
+        git("tag", "v1");
+        commit("<xmi version=\"2\"/>", "second");
+        git("tag", "v2");
+        // Only the README changes, the XMI blob is the same as v2
+        commit("<xmi version=\"2\"/>", "third");
+    }
+
+    @Test
+    public void shouldReadBlobsAtRefs(@TempDir Path cache) throws IOException {
+        GitBlobSource source = new GitBlobSource(repository, cache);
+        assertEquals("<xmi version=\"1\"/>", Files.readString(source.fetch("v1", GitBlobSource.XMI_PATH)));
+        assertEquals("<xmi version=\"2\"/>", Files.readString(source.fetch("v2", GitBlobSource.XMI_PATH)));
+        assertEquals("<xmi version=\"2\"/>", Files.readString(source.fetch("HEAD", GitBlobSource.XMI_PATH)));
+        // The working tree is not touched
+        assertEquals("third", Files.readString(repository.resolve("README.md")));
+    }
+
+    @Test
+    public void shouldCacheBlobsByObjectId(@TempDir Path cache) throws IOException {
+        GitBlobSource source = new GitBlobSource(repository, cache);
+        Path v2 = source.fetch("v2", GitBlobSource.XMI_PATH);
+        assertEquals(v2, source.fetch("HEAD", GitBlobSource.XMI_PATH));
+        assertNotEquals(v2, source.fetch("v1", GitBlobSource.XMI_PATH));
+        assertEquals(source.objectId("v2", GitBlobSource.XMI_PATH) + ".xmi", v2.getFileName().toString());
+        try (var files = Files.list(cache)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void shouldFailOnMissingPaths(@TempDir Path cache) {
+        GitBlobSource source = new GitBlobSource(repository, cache);
+        assertThrows(IOException.class, () -> source.fetch("v1", GitBlobSource.API_PATH));
+        assertThrows(IOException.class, () -> source.fetch("no-such-ref", GitBlobSource.XMI_PATH));
+    }
+}
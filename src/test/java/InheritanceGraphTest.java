@@ -0,0 +1,91 @@
+import org.cdisc.tools.InheritanceGraph;
+import org.cdisc.tools.InheritanceGraph.Member;
+import org.cdisc.tools.ModelClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class InheritanceGraphTest {
+
+    // Ids are the class names prefixed with "id-"
+    private static Map<String, ModelClass> populate(Map<String, List<String>> generalizations,
+            Map<String, List<Member>> members, Map<String, Integer> lookups, String... classNames) {
+        List<String[]> classes = new ArrayList<>();
+        for (String className : classNames) {
+            classes.add(new String[] { "id-" + className, className });
+        }
+        Map<String, ModelClass> elements = new TreeMap<>();
+        new InheritanceGraph(id -> id.substring(3), name -> generalizations.getOrDefault(name, List.of()), id -> {
+            lookups.merge(id, 1, Integer::sum);
+            return members.getOrDefault(id, List.of());
+        }).populate(elements, classes);
+        return elements;
+    }
+
+    private static Member attribute(String className, String name, String type) {
+        return new Member(false, name, type, null, className);
+    }
+
+    @Test
+    public void shouldFlattenSeveralLevels() {
+        Map<String, List<String>> generalizations = Map.of("Child", List.of("id-Parent"), "Parent",
+                List.of("id-Root"));
+        Map<String, List<Member>> members = Map.of(
+                "id-Root", List.of(attribute("Root", "id", "String"), attribute("Root", "name", "String")),
+                "id-Parent", List.of(attribute("Parent", "label", "String"),
+                        new Member(true, "code", "Code", "0..1", "Parent")),
+                "id-Child", List.of(attribute("Child", "name", "Integer"),
+                        new Member(true, "code", "AliasCode", "0..1", "Child")));
+        Map<String, Integer> lookups = new HashMap<>();
+        Map<String, ModelClass> elements = populate(generalizations, members, lookups, "Root", "Parent", "Child");
+
+        ModelClass child = elements.get("Child");
+        assertEquals(List.of("id", "name", "label", "code"), List.copyOf(child.getProperties().keySet()));
+        assertEquals("Root", child.getProperties().get("id").getInheritedFrom());
+        // The inherited attribute wins over the own one, links add their type
+        assertEquals("string", child.getProperties().get("name").printType());
+        assertEquals("Code, AliasCode", child.getProperties().get("code").printType());
+        assertEquals("0..1", child.getProperties().get("code").getMultiplicity());
+        assertNull(elements.get("Parent").getProperties().get("label").getInheritedFrom());
+
+        assertEquals(Set.of("Parent"), child.getSuperClasses());
+        assertEquals(Set.of("Child"), elements.get("Parent").getSubClasses());
+        assertEquals(Set.of("Parent"), elements.get("Root").getSubClasses());
+        // Each class is looked up once, however many subclasses share it
+        assertEquals(Map.of("id-Root", 1, "id-Parent", 1, "id-Child", 1), lookups);
+    }
+
+    @Test
+    public void shouldInheritSharedAncestorOnce() {
+        Map<String, List<String>> generalizations = Map.of("Left", List.of("id-Root"), "Right", List.of("id-Root"),
+                "Child", List.of("id-Left", "id-Right"));
+        Map<String, List<Member>> members = Map.of("id-Root", List.of(attribute("Root", "id", "String")),
+                "id-Left", List.of(attribute("Left", "left", "String")),
+                "id-Right", List.of(attribute("Right", "right", "String")));
+        InheritanceGraph graph = new InheritanceGraph(id -> id.substring(3),
+                name -> generalizations.getOrDefault(name, List.of()), id -> members.getOrDefault(id, List.of()));
+
+        assertEquals(List.of("id", "left", "right"),
+                graph.members("id-Child").stream().map(Member::name).toList());
+    }
+
+    @Test
+    public void shouldIgnoreCircularGeneralizations() {
+        Map<String, List<String>> generalizations = Map.of("A", List.of("id-B"), "B", List.of("id-A"));
+        Map<String, List<Member>> members = Map.of("id-A", List.of(attribute("A", "a", "String")),
+                "id-B", List.of(attribute("B", "b", "String")));
+        Map<String, ModelClass> elements = populate(generalizations, members, new HashMap<>(), "A", "B");
+
+        assertEquals(List.of("b", "a"), List.copyOf(elements.get("A").getProperties().keySet()));
+        // The generalization closing the cycle is the one left out
+        assertEquals(List.of("b"), List.copyOf(elements.get("B").getProperties().keySet()));
+    }
+}
@@ -0,0 +1,41 @@
+import net.steppschuh.markdowngenerator.table.Table;
+import org.cdisc.tools.MarkdownTableWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MarkdownTableWriterTest {
+
+    private static final Integer[] ALIGNMENTS = { Table.ALIGN_LEFT, Table.ALIGN_CENTER, Table.ALIGN_RIGHT,
+            Table.ALIGN_LEFT };
+
+    private static void assertSameAsTable(List<Object[]> rows) throws IOException {
+        Table.Builder builder = new Table.Builder().withAlignments(ALIGNMENTS);
+        rows.forEach(builder::addRow);
+        StringWriter file = new StringWriter();
+        StringWriter console = new StringWriter();
+        new MarkdownTableWriter(ALIGNMENTS).write(rows::forEach, file, console);
+        assertEquals(builder.build().toString(), file.toString());
+        assertEquals(file.toString(), console.toString());
+    }
+
+    @Test
+    public void shouldRenderLikeTable() throws IOException {
+        assertSameAsTable(List.of(
+                new Object[] { "Class Name", "Attribute", "Card", "Definition", "Inherited From" },
+                new Object[] { "Activity", null, null, "An action", null },
+                new Object[] { null, "id", "1", "The identifier", "Entity" },
+                new Object[] { null, "name", "0..1", "~", null },
+                new Object[] { "Short" },
+                new Object[] { null, "centeredValue", 42, "Longer than any other definition", "x", "extra" }));
+    }
+
+    @Test
+    public void shouldRenderHeaderOnly() throws IOException {
+        assertSameAsTable(List.<Object[]>of(new Object[] { "A", "B" }));
+    }
+}
@@ -0,0 +1,105 @@
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.ModelClassProperty;
+import org.cdisc.tools.ModelDelta;
+import org.cdisc.tools.ModelDelta.ClassDelta;
+import org.cdisc.tools.ModelDelta.FieldChange;
+import org.cdisc.tools.ModelDelta.Status;
+import org.cdisc.tools.ModelDeltaWriter;
+import org.cdisc.tools.ModelDiff;
+import org.cdisc.tools.ModelFingerprint;
+import org.cdisc.tools.UsdmStaxParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModelDiffTest {
+
+    private static String testFileName = "currentRelease/USDM_UML.xmi";
+
+    private static Map<String, ModelClass> load() throws Exception {
+        Map<String, ModelClass> model = new TreeMap<>();
+        try (InputStream file = ModelDiffTest.class.getClassLoader().getResourceAsStream(testFileName)) {
+            new UsdmStaxParser(file).loadFromUsdmXmi(model);
+        }
+        return model;
+    }
+
+    @Test
+    public void shouldFindNothingBetweenTwoLoads() throws Exception {
+        Map<String, ModelClass> first = load();
+        Map<String, ModelClass> second = load();
+        ModelFingerprint a = ModelFingerprint.of(first);
+        ModelFingerprint b = ModelFingerprint.of(second);
+        for (String name : first.keySet()) {
+            assertEquals(a.getClassHash(name), b.getClassHash(name));
+        }
+        ModelDelta delta = ModelDiff.diff(first, a, second, b);
+        assertTrue(delta.isEmpty());
+        assertEquals(first.size(), delta.unchangedClasses());
+    }
+
+    @Test
+    public void shouldReportFieldChanges() throws Exception {
+        ModelClass prevStudy = TestModels.modelClass("Study",
+                new ModelClassProperty("id", "String", null, null, null, "1"),
+                new ModelClassProperty("name", "String", null, null, null, "1"),
+                new ModelClassProperty("label", "String", null, null, null, "0..1"));
+        prevStudy.getSuperClasses().add("Entity");
+        ModelClass currStudy = TestModels.modelClass("Study",
+                new ModelClassProperty("id", "String", null, null, null, "1"),
+                new ModelClassProperty("name", "String", null, null, "Named", "0..1"),
+                new ModelClassProperty("versions", "StudyVersion", null, null, null, "1..*"));
+        currStudy.getSuperClasses().add("Named");
+        Map<String, ModelClass> prev = TestModels.model(prevStudy, TestModels.modelClass("Code"),
+                TestModels.modelClass("Old"));
+        Map<String, ModelClass> curr = TestModels.model(currStudy, TestModels.modelClass("Code"),
+                TestModels.modelClass("New"));
+
+        ModelDelta delta = ModelDiff.diff(prev, curr);
+        assertEquals(1, delta.unchangedClasses());
+        assertEquals(List.of("New", "Old", "Study"), delta.classes().stream().map(ClassDelta::name).toList());
+        assertEquals(List.of(Status.NEW, Status.DELETED, Status.CHANGED),
+                delta.classes().stream().map(ClassDelta::status).toList());
+        ClassDelta study = delta.classes(Status.CHANGED).get(0);
+        assertEquals(List.of(new FieldChange("Super Classes", "Entity", "Named")), study.changes());
+        assertEquals(List.of("label", "name", "versions"),
+                study.properties().stream().map(ModelDelta.PropertyDelta::name).toList());
+        assertEquals(List.of(new FieldChange("Cardinality", "1", "0..1"),
+                new FieldChange("Inherited From", null, "Named")), study.properties().get(1).changes());
+
+        StringWriter csv = new StringWriter();
+        ModelDeltaWriter.writeCsv(delta, csv);
+        assertEquals(String.join("\r\n",
+                "status,class_name,property_name,data_type,field,previous,current",
+                "Class - NEW,New,,,,,",
+                "Class - DELETED,Old,,,,,",
+                ",,,,,,",
+                "Property - NEW,Study,versions,StudyVersion,,,",
+                "Property - DELETED,Study,label,string,,,",
+                "Class - CHANGED,Study,,,Super Classes,Entity,Named",
+                "Property - CHANGED,Study,name,string,Cardinality,1,0..1",
+                "Property - CHANGED,Study,name,string,Inherited From,,Named", ""), csv.toString());
+    }
+
+    @Test
+    public void shouldHashEveryField() {
+        ModelClassProperty property = new ModelClassProperty("code", "Code", List.of("C1"), null, null, "1");
+        long hash = ModelFingerprint.hash(property);
+        property.setDefinition("A code");
+        assertNotEquals(hash, ModelFingerprint.hash(property));
+        hash = ModelFingerprint.hash(property);
+        property.addType("AliasCode");
+        assertNotEquals(hash, ModelFingerprint.hash(property));
+        hash = ModelFingerprint.hash(property);
+        property.setCodeListReference(List.of("C2"));
+        assertNotEquals(hash, ModelFingerprint.hash(property));
+    }
+}
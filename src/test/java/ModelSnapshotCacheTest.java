@@ -0,0 +1,113 @@
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.ModelSnapshotCache;
+import org.cdisc.tools.UsdmStaxParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModelSnapshotCacheTest {
+
+    private static String testFileName = "currentRelease/USDM_UML.xmi";
+    private static URL testFile = ModelSnapshotCacheTest.class.getClassLoader().getResource(testFileName);
+
+    private static Map<String, ModelClass> model = new TreeMap<>();
+
+    @TempDir
+    Path cacheFolder;
+
+    @BeforeAll
+    public static void init() throws Exception {
+        try (InputStream file = testFile.openStream()) {
+            new UsdmStaxParser(file).loadFromUsdmXmi(model);
+        }
+        // Something for the CT related fields to round trip
+        ModelClass first = model.values().iterator().next();
+        first.setDefinition("A definition");
+        first.getProperties().values().iterator().next().setCodeListReference(List.of("C12345"));
+    }
+
+    @Test
+    public void shouldRoundTripModel() throws Exception {
+        ModelSnapshotCache cache = new ModelSnapshotCache(cacheFolder);
+        String key = ModelSnapshotCache.key("model", List.of("stax"), testFile);
+        Map<String, ModelClass> loaded = new TreeMap<>();
+        assertFalse(cache.load(key, loaded));
+        cache.store(key, model);
+        assertTrue(cache.load(key, loaded));
+        assertEquals(model.keySet(), loaded.keySet());
+        for (Map.Entry<String, ModelClass> entry : model.entrySet()) {
+            ModelClass loadedClass = loaded.get(entry.getKey());
+            assertEquals(entry.getValue().toString(), loadedClass.toString(), entry.getKey());
+            assertEquals(new ArrayList<>(entry.getValue().getProperties().keySet()),
+                    new ArrayList<>(loadedClass.getProperties().keySet()), entry.getKey());
+            assertEquals(entry.getValue().getSuperClasses(), loadedClass.getSuperClasses(), entry.getKey());
+            assertEquals(entry.getValue().getSubClasses(), loadedClass.getSubClasses(), entry.getKey());
+        }
+    }
+
+    @Test
+    public void shouldChangeKeyWithOptions() throws Exception {
+        assertEquals(ModelSnapshotCache.key("model", List.of("stax"), testFile),
+                ModelSnapshotCache.key("model", List.of("stax"), testFile));
+        assertNotEquals(ModelSnapshotCache.key("model", List.of("stax"), testFile),
+                ModelSnapshotCache.key("model", List.of("xpath"), testFile));
+    }
+
+    @Test
+    public void shouldKeepOnlyLatestSnapshotOfAKind() throws Exception {
+        ModelSnapshotCache cache = new ModelSnapshotCache(cacheFolder);
+        cache.store(ModelSnapshotCache.key("model", List.of("stax"), testFile), model);
+        cache.store(ModelSnapshotCache.key("model", List.of("xpath"), testFile), model);
+        cache.store(ModelSnapshotCache.key("model-ct", List.of("xpath"), testFile), model);
+        try (var files = Files.list(cacheFolder)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void shouldKeepOneSnapshotPerRelease() throws Exception {
+        URL previous = ModelSnapshotCacheTest.class.getClassLoader().getResource("prevRelease/USDM_UML.xmi");
+        Map<String, URL> releases = Map.of("prevRelease/", previous, "currentRelease/", testFile);
+        ModelSnapshotCache cache = new ModelSnapshotCache(cacheFolder);
+        for (int run = 0; run < 2; run++) {
+            for (Map.Entry<String, URL> release : releases.entrySet()) {
+                String kind = ModelSnapshotCache.kind("release-model", release.getKey());
+                assertFalse(kind.contains("/"), kind);
+                String key = ModelSnapshotCache.key(kind, List.of("stax"), release.getValue());
+                Map<String, ModelClass> loaded = new TreeMap<>();
+                assertEquals(run == 1, cache.load(key, loaded), key);
+                if (run == 0) {
+                    cache.store(key, model);
+                }
+            }
+        }
+        try (var files = Files.list(cacheFolder)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void shouldIgnoreCorruptSnapshot() throws Exception {
+        ModelSnapshotCache cache = new ModelSnapshotCache(cacheFolder);
+        String key = ModelSnapshotCache.key("model", List.of("stax"), testFile);
+        cache.store(key, model);
+        Path snapshot = cacheFolder.resolve(key + ".snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertFalse(cache.load(key, new TreeMap<>()));
+    }
+}
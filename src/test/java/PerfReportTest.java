@@ -0,0 +1,89 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.cdisc.tools.PerfReport;
+import org.cdisc.tools.StageGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PerfReportTest {
+
+    @TempDir
+    Path folder;
+
+    private static void run(PerfReport report) {
+        try (StageGraph graph = new StageGraph("test", 2, report)) {
+            var parsed = graph.stage("parse", () -> {
+                try (StageGraph.Phase phase = StageGraph.phase("read")) {
+                    phase.elements(3);
+                }
+                return Map.of("a", 1, "b", 2);
+            });
+            var listed = graph.stage("list", () -> List.of(1, 2, 3, 4, 5));
+            graph.step("emit", () -> new ArrayList<>(parsed.get().keySet()), parsed, listed);
+            graph.await();
+        }
+    }
+
+    @Test
+    public void shouldReportEveryStageAndPhase() throws Exception {
+        PerfReport report = new PerfReport(List.of("--gen-table", "--perf-report"));
+        run(report);
+        Path file = folder.resolve("perfReport.json");
+        report.write(file);
+
+        JsonObject json = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        assertEquals("--gen-table", json.getAsJsonArray("args").get(0).getAsString());
+        assertTrue(json.get("peakHeapBytes").getAsLong() > 0);
+        JsonObject graph = json.getAsJsonArray("graphs").get(0).getAsJsonObject();
+        assertEquals("test", graph.get("name").getAsString());
+        JsonArray stages = graph.getAsJsonArray("stages");
+        assertEquals(3, stages.size());
+
+        JsonObject parse = stages.get(0).getAsJsonObject();
+        assertEquals("parse", parse.get("name").getAsString());
+        assertEquals(2, parse.get("elements").getAsLong());
+        assertTrue(parse.get("wallMillis").getAsDouble() >= 0);
+        assertTrue(parse.get("allocatedBytes").getAsLong() > 0);
+        JsonObject read = parse.getAsJsonArray("phases").get(0).getAsJsonObject();
+        assertEquals("read", read.get("name").getAsString());
+        assertEquals(3, read.get("elements").getAsLong());
+
+        assertEquals(5, stages.get(1).getAsJsonObject().get("elements").getAsLong());
+        // A step counts the elements of its first input
+        assertEquals(2, stages.get(2).getAsJsonObject().get("elements").getAsLong());
+    }
+
+    @Test
+    public void shouldCommitJfrEvents() throws Exception {
+        Path file = folder.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.cdisc.tools.Phase");
+            recording.start();
+            run(null);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<String> phases = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("org.cdisc.tools.Phase")) {
+                assertEquals("test", event.getString("run"));
+                phases.add(event.getString("parent") == null ? event.getString("phase")
+                        : event.getString("parent") + "/" + event.getString("phase"));
+            }
+        }
+        assertTrue(phases.containsAll(List.of("parse", "parse/read", "list", "emit")), phases.toString());
+    }
+}
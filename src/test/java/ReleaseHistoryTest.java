@@ -0,0 +1,44 @@
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.ModelDelta.Status;
+import org.cdisc.tools.ModelDiff;
+import org.cdisc.tools.ReleaseHistory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ReleaseHistoryTest {
+
+    @Test
+    public void shouldTrackElementsOverReleases() {
+        List<Map<String, ModelClass>> releases = List.of(
+                TestModels.model("Study.id", "Study.name", "Code.code"),
+                TestModels.model("Study.id", "Study.name", "Code.code", "Code.decode"),
+                TestModels.model("Study.id", "Study.name:Code", "Code.code", "Code.decode"),
+                TestModels.model("Study.id", "Study.name:Code", "Alias.code"));
+        List<String> labels = List.of("1.0", "2.0", "3.0", "4.0");
+        ReleaseHistory history = new ReleaseHistory(labels, releases.get(0), List.of(
+                ModelDiff.diff(releases.get(0), releases.get(1)),
+                ModelDiff.diff(releases.get(1), releases.get(2)),
+                ModelDiff.diff(releases.get(2), releases.get(3))));
+
+        assertEquals(Status.NEW, history.getStatus("Study", "", "1.0"));
+        assertNull(history.getStatus("Study", "", "2.0"));
+        assertEquals(Status.CHANGED, history.getStatus("Study", "", "3.0"));
+        assertEquals(Status.CHANGED, history.getStatus("Study", "name", "3.0"));
+        assertNull(history.getStatus("Study", "id", "3.0"));
+        assertEquals(Status.CHANGED, history.getStatus("Code", "", "2.0"));
+        assertEquals(Status.NEW, history.getStatus("Code", "decode", "2.0"));
+        assertEquals(Status.DELETED, history.getStatus("Code", "decode", "4.0"));
+        assertEquals(Status.NEW, history.getStatus("Alias", "code", "4.0"));
+
+        assertEquals(List.of("Class", "Attribute", "1.0", "2.0", "3.0", "4.0"), history.labels());
+        assertEquals(List.of("Alias.", "Alias.code", "Code.", "Code.code", "Code.decode", "Study.", "Study.id",
+                "Study.name"),
+                history.records().stream().map(record -> record.get("Class") + "." + record.get("Attribute"))
+                        .toList());
+    }
+}
@@ -0,0 +1,67 @@
+import org.cdisc.tools.ApiSchema;
+import org.cdisc.tools.ApiSchemaProperty;
+import org.cdisc.tools.SchemaRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaRegistryTest {
+
+    private static final String API = "{\"paths\": {\"/study\": {\"get\": {\"responses\": [1, 2, {\"a\": null}]}}},"
+            + "\"components\": {\"securitySchemes\": {}, \"schemas\": {"
+            + "\"Code\": {\"title\": \"Code\", \"properties\": {\"code\": {\"type\": \"string\"},"
+            + " \"instanceType\": {\"const\": \"Code\"}, \"version\": {\"const\": 1}}},"
+            + "\"Study-Output\": {\"title\": \"Study\", \"type\": \"object\", \"properties\": {"
+            + "\"codes\": {\"type\": \"array\", \"items\": {\"$ref\": \"#/components/schemas/Code\"}},"
+            + "\"codeId\": {\"anyOf\": [{\"type\": \"string\"}, {\"type\": \"null\"}]}}},"
+            + "\"Abstract\": {\"title\": \"Abstract\"}}}}";
+
+    private static SchemaRegistry registry() throws IOException {
+        return SchemaRegistry.read(new ByteArrayInputStream(API.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void shouldReadSchemas() throws IOException {
+        SchemaRegistry registry = registry();
+        assertEquals(List.of("Code", "Study-Output", "Abstract"), List.copyOf(registry.getSchemas().keySet()));
+        Map<String, ApiSchemaProperty> code = registry.getSchema("Code").getProperties();
+        assertEquals(List.of("code", "instanceType", "version"), List.copyOf(code.keySet()));
+        assertEquals("string", code.get("code").getType());
+        assertTrue(code.get("instanceType").isConstant());
+        assertEquals("Code", code.get("instanceType").getConstValue());
+        assertTrue(code.get("version").isConstant());
+        Map<String, ApiSchemaProperty> study = registry.getSchema("Study-Output").getProperties();
+        assertEquals("#/components/schemas/Code", study.get("codes").getItems().getRef());
+        assertEquals(2, study.get("codeId").getAnyOf().size());
+        assertNull(registry.getSchema("Abstract").getProperties());
+    }
+
+    @Test
+    public void shouldResolveRefs() throws IOException {
+        SchemaRegistry registry = registry();
+        ApiSchema code = registry.resolve("#/components/schemas/Code");
+        assertEquals("Code", code.getTitle());
+        assertSame(code, registry.resolve("#/components/schemas/Code"));
+        assertSame(registry.getSchema("Code"), code);
+        assertNull(registry.resolve("#/components/schemas/Missing"));
+        assertNull(registry.resolve("other.json#/Code"));
+    }
+
+    @Test
+    public void shouldFallBackToOutputSchema() throws IOException {
+        SchemaRegistry registry = registry();
+        assertSame(registry.getSchema("Code").getProperties(), registry.getClassProperties("Code"));
+        assertSame(registry.getSchema("Study-Output").getProperties(), registry.getClassProperties("Study"));
+        assertNull(registry.getClassProperties("Abstract"));
+        assertNull(registry.getClassProperties("Missing"));
+    }
+}
@@ -0,0 +1,90 @@
+import org.cdisc.tools.APIParser;
+import org.cdisc.tools.CptParser;
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.ModelDelta;
+import org.cdisc.tools.ModelDiff;
+import org.cdisc.tools.SyntheticRelease;
+import org.cdisc.tools.UsdmParser;
+import org.cdisc.tools.UsdmStaxParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyntheticReleaseTest {
+
+    private static final String CURRENT_XMI = "currentRelease/USDM_UML.xmi";
+    private static final String PREVIOUS_XMI = "prevRelease/USDM_UML.xmi";
+
+    @TempDir
+    Path folder;
+
+    private static Map<String, ModelClass> load(Path xmi, boolean stax) throws Exception {
+        Map<String, ModelClass> elements = new TreeMap<>();
+        if (stax) {
+            new UsdmStaxParser(xmi).loadFromUsdmXmi(elements);
+        } else {
+            new UsdmParser(xmi).loadFromUsdmXmi(elements);
+        }
+        return elements;
+    }
+
+    @Test
+    public void shouldBeReadByBothLoaders() throws Exception {
+        SyntheticRelease release = new SyntheticRelease(2, SyntheticRelease.DEFAULT_SEED);
+        release.write(folder);
+
+        Map<String, ModelClass> current = load(folder.resolve(CURRENT_XMI), false);
+        assertEquals(release.getClassCount(), current.size());
+        assertEquals(0, ModelDiff.diff(current, load(folder.resolve(CURRENT_XMI), true)).classes().size());
+        assertTrue(current.values().stream().anyMatch(modelClass -> !modelClass.getSuperClasses().isEmpty()));
+
+        ModelDelta delta = ModelDiff.diff(load(folder.resolve(PREVIOUS_XMI), false), current);
+        assertFalse(delta.classes(ModelDelta.Status.NEW).isEmpty());
+        assertFalse(delta.classes().isEmpty());
+    }
+
+    @Test
+    public void shouldMatchTheCtAndApi() throws Exception {
+        new SyntheticRelease(1, SyntheticRelease.DEFAULT_SEED).write(folder);
+        Map<String, ModelClass> current = load(folder.resolve(CURRENT_XMI), true);
+
+        new CptParser(folder.resolve("USDM_CT.xlsx").toUri().toURL()).populateMapwithCpt(current);
+        for (ModelClass modelClass : current.values()) {
+            assertNotNull(modelClass.getDefinition(), modelClass.getName());
+            modelClass.getProperties().values()
+                    .forEach(property -> assertNotNull(property.getDefinition(), property.getName()));
+        }
+        // Every concrete class is reachable from Study
+        Map<String, ModelClass> api = new APIParser(folder.resolve("USDM_API.json").toUri().toURL())
+                .getEntitiesMap();
+        String xmi = Files.readString(folder.resolve(CURRENT_XMI));
+        long abstractClasses = xmi.split(" isAbstract=\"true\">", -1).length - 1;
+        assertTrue(abstractClasses > 0);
+        assertEquals(current.size() - abstractClasses, api.size());
+        assertTrue(current.keySet().containsAll(api.keySet()));
+    }
+
+    @Test
+    public void shouldBeReproducible(@TempDir Path other) throws Exception {
+        new SyntheticRelease(1, 7).write(folder);
+        new SyntheticRelease(1, 7).write(other);
+        for (String file : new String[] { CURRENT_XMI, PREVIOUS_XMI, "USDM_API.json", "cardinalities.json" }) {
+            assertArrayEquals(Files.readAllBytes(folder.resolve(file)), Files.readAllBytes(other.resolve(file)),
+                    file);
+        }
+
+        new SyntheticRelease(1, 8).write(other);
+        assertFalse(Files.readString(folder.resolve(CURRENT_XMI))
+                .equals(Files.readString(other.resolve(CURRENT_XMI))));
+    }
+}
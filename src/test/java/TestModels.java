@@ -0,0 +1,48 @@
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.ModelClassProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Small models for the tests that compare them (diffs, release history,
+ * alignment)
+ */
+public class TestModels {
+
+    /**
+     * @param classAndProperties - "Class" or "Class.property", optionally typed
+     *                           as "Class.property:Type" (String by default)
+     */
+    public static Map<String, ModelClass> model(String... classAndProperties) {
+        Map<String, ModelClass> model = new TreeMap<>();
+        for (String classAndProperty : classAndProperties) {
+            String[] names = classAndProperty.split("\\.");
+            ModelClass modelClass = model.computeIfAbsent(names[0], TestModels::modelClass);
+            if (names.length > 1) {
+                String[] typed = names[1].split(":");
+                modelClass.getProperties().put(typed[0],
+                        new ModelClassProperty(typed[0], typed.length > 1 ? typed[1] : "String", null, null, null,
+                                null));
+            }
+        }
+        return model;
+    }
+
+    public static Map<String, ModelClass> model(ModelClass... classes) {
+        Map<String, ModelClass> model = new TreeMap<>();
+        for (ModelClass modelClass : classes) {
+            model.put(modelClass.getName(), modelClass);
+        }
+        return model;
+    }
+
+    public static ModelClass modelClass(String name, ModelClassProperty... properties) {
+        Map<String, ModelClassProperty> map = new LinkedHashMap<>();
+        for (ModelClassProperty property : properties) {
+            map.put(property.getName(), property);
+        }
+        return new ModelClass(name, map, null);
+    }
+}
@@ -0,0 +1,95 @@
+import org.cdisc.tools.StageGraph;
+import org.cdisc.tools.UsdmParser;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UsdmParserMemoryTest {
+
+    private static String testFileName = "currentRelease/USDM_UML.xmi";
+    private static final Logger logger = Logger.getLogger(UsdmParserMemoryTest.class.getName());
+
+    private interface Load {
+        void run() throws Exception;
+    }
+
+    // The phase measures the bytes allocated by this thread, and holds the
+    // phases the UsdmParser constructor opens with their element counts
+    private static StageGraph.Phase measure(Load load) throws Exception {
+        try (StageGraph.Phase phase = StageGraph.phase("load")) {
+            load.run();
+            return phase;
+        }
+    }
+
+    private static Map<String, Long> elements(StageGraph.Phase phase) {
+        Map<String, Long> elements = new TreeMap<>();
+        for (StageGraph.Phase nested : phase.getPhases()) {
+            elements.put(nested.getName(), nested.getElements());
+        }
+        return elements;
+    }
+
+    private static long countElements(Path path) throws Exception {
+        long count = 0;
+        try (InputStream file = Files.newInputStream(path)) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(file);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    count++;
+                }
+            }
+            reader.close();
+        }
+        return count;
+    }
+
+    private static void loadMapped(Path path) throws Exception {
+        new UsdmParser(path);
+    }
+
+    // What the InputStream constructor used to do before parsing: copy the whole
+    // file into a ByteArrayOutputStream and take it out as a byte array
+    private static void loadCopied(Path path) throws Exception {
+        try (InputStream file = Files.newInputStream(path)) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            file.transferTo(baos);
+            new UsdmParser(new ByteArrayInputStream(baos.toByteArray()));
+        }
+    }
+
+    @Test
+    public void shouldNotCopyMappedFileIntoHeap() throws Exception {
+        Path path = Path.of(UsdmParserMemoryTest.class.getClassLoader().getResource(testFileName).toURI());
+        long size = Files.size(path);
+        // Warm up, so class loading and JIT do not count against the first run
+        loadMapped(path);
+        loadCopied(path);
+
+        StageGraph.Phase mapped = measure(() -> loadMapped(path));
+        StageGraph.Phase copied = measure(() -> loadCopied(path));
+        logger.log(Level.INFO, String.format("File size: %1$d, allocated mapped: %2$d, allocated copied: %3$d",
+                size, mapped.getAllocatedBytes(), copied.getAllocatedBytes()));
+        assertTrue(mapped.getAllocatedBytes() >= 0, "Thread allocations should be measured");
+        assertTrue(copied.getAllocatedBytes() - mapped.getAllocatedBytes() >= size,
+                "Mapped load should allocate at least one file size less than a copied load");
+
+        assertEquals(countElements(path), elements(mapped).get("parse XMI document"));
+        assertTrue(elements(mapped).get("scan namespaces and index") > 0);
+        assertEquals(elements(copied), elements(mapped));
+    }
+}
@@ -0,0 +1,54 @@
+import org.cdisc.tools.ModelClass;
+import org.cdisc.tools.UsdmParser;
+import org.cdisc.tools.UsdmStaxParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class UsdmStaxParserTest {
+
+    private static String testFileName = "currentRelease/USDM_UML.xmi";
+
+    private static Map<String, ModelClass> xpathModel = new HashMap<>();
+    private static Map<String, ModelClass> staxModel = new HashMap<>();
+
+    private static InputStream loadFile() {
+        return UsdmStaxParserTest.class.getClassLoader().getResourceAsStream(testFileName);
+    }
+
+    @BeforeAll
+    public static void init() throws Exception {
+        try (InputStream file = loadFile()) {
+            new UsdmParser(file).loadFromUsdmXmi(xpathModel);
+        }
+        try (InputStream file = loadFile()) {
+            new UsdmStaxParser(file).loadFromUsdmXmi(staxModel);
+        }
+    }
+
+    @Test
+    public void shouldFindSameClasses() {
+        assertFalse(staxModel.isEmpty());
+        assertEquals(xpathModel.keySet(), staxModel.keySet());
+    }
+
+    @Test
+    public void shouldLoadSameClassDetails() {
+        for (Map.Entry<String, ModelClass> entry : xpathModel.entrySet()) {
+            ModelClass staxClass = staxModel.get(entry.getKey());
+            // toString serializes the properties with their types, multiplicity and inheritedFrom
+            assertEquals(entry.getValue().toString(), staxClass.toString(), entry.getKey());
+            assertEquals(new ArrayList<>(entry.getValue().getProperties().keySet()),
+                    new ArrayList<>(staxClass.getProperties().keySet()), entry.getKey());
+            assertEquals(entry.getValue().getSuperClasses(), staxClass.getSuperClasses(), entry.getKey());
+            assertEquals(entry.getValue().getSubClasses(), staxClass.getSubClasses(), entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import org.cdisc.tools.YamlEventWriter;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class YamlEventWriterTest {
+
+    private static void assertSameAsDump(Map<String, Object> document) throws IOException {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(FlowStyle.BLOCK);
+        StringWriter dumped = new StringWriter();
+        new Yaml(options).dump(document, dumped);
+        StringWriter written = new StringWriter();
+        try (YamlEventWriter yaml = new YamlEventWriter(written, options)) {
+            yaml.startMapping();
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                yaml.write(entry.getKey());
+                yaml.write(entry.getValue());
+            }
+            yaml.endMapping();
+        }
+        assertEquals(dumped.toString(), written.toString());
+    }
+
+    @Test
+    public void shouldWriteLikeDump() throws IOException {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("id", Map.of("Type", List.of(Map.of("$ref", "#/string")), "Cardinality", "1"));
+        // Arrays are written as sequences too
+        attributes.put("array", Map.of("Type", new Object[] { Map.of("$ref", "#/string"), "text" }));
+        attributes.put("codes*", Map.of("Type", List.of(Map.of("$ref", "#/List\\<Code>"), Map.of("$ref", "#/x"))));
+        Map<String, Object> clazz = new LinkedHashMap<>();
+        clazz.put("Definition", "A definition long enough to be folded by the emitter, as it goes well past eighty"
+                + " characters: with a colon, a # and 'quotes'");
+        clazz.put("Preferred Term", "true");
+        clazz.put("NCI C-Code", "12345");
+        clazz.put("Multiline", "first\nsecond");
+        clazz.put("Empty", "");
+        clazz.put("Control", "bell\u0007");
+        clazz.put("Attributes", attributes);
+        clazz.put("None", new LinkedHashMap<>());
+        clazz.put("Nothing", List.of());
+        Map<String, Object> document = new TreeMap<>();
+        document.put("Study", clazz);
+        document.put("Code", Map.of("Modifier", "Abstract"));
+        assertSameAsDump(document);
+    }
+
+    @Test
+    public void shouldWriteEmptyDocument() throws IOException {
+        assertSameAsDump(new TreeMap<>());
+    }
+}